@@ -0,0 +1,56 @@
+package com.technocorp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technocorp.controller.UserController;
+import com.technocorp.service.PasswordHasher;
+import com.technocorp.service.UserProperties;
+import com.technocorp.service.UserQueryCache;
+import com.technocorp.service.UserServiceImpl;
+import com.technocorp.service.UserWriteBehind;
+import com.technocorp.util.dto.ControllerResponseUserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * GET /users and GET /users/{name} from the controller down to a stubbed repository, with and without the page cache.
+ */
+@State(Scope.Benchmark)
+public class ControllerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int limit;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private UserController userController;
+
+    @Setup
+    public void setup() {
+        var properties = new UserProperties();
+        properties.getCache().setEnabled(cached);
+        // One user more than the limit, so every page also builds its next cursor.
+        var userRepository = Fixtures.repositoryOf(Fixtures.users(limit + 1));
+        var cache = new UserQueryCache(properties);
+        var passwordHasher = new PasswordHasher(properties);
+        var userService = new UserServiceImpl(userRepository, cache, properties,
+                new UserWriteBehind(userRepository, cache, passwordHasher, properties), passwordHasher);
+        this.userController = new UserController(userService, new ObjectMapper());
+    }
+
+    @Benchmark
+    public ResponseEntity<List<ControllerResponseUserDTO>> listAllUsers() {
+        return userController.listAllUsers(limit, null, false, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<ControllerResponseUserDTO>> findByName() {
+        return userController.findByName("Andrews", limit, null, false);
+    }
+}
@@ -0,0 +1,75 @@
+package com.technocorp.benchmark;
+
+import com.technocorp.model.User;
+import com.technocorp.repository.UserRepository;
+import com.technocorp.util.dto.ControllerResponseUserDTO;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Users and a repository stub shared by the benchmarks, so every run maps and serializes the same data.
+ */
+final class Fixtures {
+
+    private static final Set<String> PAGE_QUERIES = Set.of("findAllBy", "findByIdGreaterThan",
+            "findBySearchNameStartingWith", "findBySearchNameStartingWithAndIdGreaterThan");
+
+    private Fixtures(){}
+
+    static User user(int index) {
+        return User.builder()
+                .id(String.format("%024x", index))
+                .name("Andrews " + index)
+                .searchName("andrews " + index)
+                .surname("Souza")
+                .age(30)
+                .cpf(String.format("%011d", index))
+                .login("andrews" + index)
+                .password("secret" + index)
+                .admin(index % 10 == 0)
+                .build();
+    }
+
+    static List<User> users(int size) {
+        var users = new ArrayList<User>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static List<ControllerResponseUserDTO> responses(int size) {
+        var responses = new ArrayList<ControllerResponseUserDTO>(size);
+        for (int i = 0; i < size; i++) {
+            var user = user(i);
+            responses.add(new ControllerResponseUserDTO(user.getId(), user.getName(), user.getSurname(),
+                    user.getAge(), user.getCpf(), user.isAdmin()));
+        }
+        return responses;
+    }
+
+    /**
+     * A repository whose page queries answer with the given users without touching Mongo.
+     */
+    static UserRepository repositoryOf(List<User> users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (PAGE_QUERIES.contains(method.getName())) {
+                        return users;
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("toString")) {
+                        return "UserRepository stub";
+                    }
+                    throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                });
+    }
+}
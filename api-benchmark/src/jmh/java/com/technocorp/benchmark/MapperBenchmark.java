@@ -0,0 +1,117 @@
+package com.technocorp.benchmark;
+
+import com.technocorp.model.User;
+import com.technocorp.util.Mapper;
+import com.technocorp.util.dto.ControllerRequestOperationDTO;
+import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseBatchItemDTO;
+import com.technocorp.util.dto.ControllerResponseBulkWriteDTO;
+import com.technocorp.util.dto.ControllerResponseOperationDTO;
+import com.technocorp.util.dto.ControllerResponseUserDTO;
+import com.technocorp.util.dto.OperationStatus;
+import com.technocorp.util.dto.OperationType;
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponseBulkWriteDTO;
+import com.technocorp.util.dto.ServiceResponseOperationDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One benchmark per Mapper function, plus the page mappers on a 100-user page.
+ */
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ControllerRequestUserDTO controllerRequest;
+    private ServiceRequestUserDTO serviceRequest;
+    private ServiceResponseUserDTO serviceResponse;
+    private User user;
+    private ServiceResponseBatchItemDTO batchItem;
+    private ControllerRequestOperationDTO operationRequest;
+    private ServiceResponseOperationDTO operationResponse;
+    private ServiceResponseBulkWriteDTO bulkWriteResponse;
+    private List<User> users;
+    private List<ServiceResponseUserDTO> serviceResponses;
+
+    @Setup
+    public void setup() {
+        this.user = Fixtures.user(1);
+        this.controllerRequest = new ControllerRequestUserDTO(user.getName(), user.getSurname(), user.getAge(),
+                user.getCpf(), user.getLogin(), user.getPassword());
+        this.serviceRequest = Mapper.toServiceRequestUserDTO.apply(controllerRequest);
+        this.serviceResponse = Mapper.toServiceResponseUserDTO.apply(user);
+        this.batchItem = new ServiceResponseBatchItemDTO(0, user.getId(), null);
+        this.operationRequest = new ControllerRequestOperationDTO(OperationType.UPDATE, user.getId(), controllerRequest);
+        this.operationResponse = new ServiceResponseOperationDTO(0, OperationType.UPDATE, user.getId(),
+                OperationStatus.UPDATED, null);
+        this.bulkWriteResponse = new ServiceResponseBulkWriteDTO(0, 1, 1, 0,
+                Collections.nCopies(PAGE_SIZE, operationResponse));
+        this.users = Fixtures.users(PAGE_SIZE);
+        this.serviceResponses = Mapper.toServiceResponseUserDTOs(users);
+    }
+
+    @Benchmark
+    public ServiceRequestUserDTO toServiceRequestUserDTO() {
+        return Mapper.toServiceRequestUserDTO.apply(controllerRequest);
+    }
+
+    @Benchmark
+    public ControllerResponseUserDTO toControllerResponseUserDTO() {
+        return Mapper.toControllerResponseUserDTO.apply(serviceResponse);
+    }
+
+    @Benchmark
+    public User toUserSave() {
+        return Mapper.toUserSave.apply(serviceRequest);
+    }
+
+    @Benchmark
+    public ServiceResponseUserDTO toServiceResponseUserDTO() {
+        return Mapper.toServiceResponseUserDTO.apply(user);
+    }
+
+    @Benchmark
+    public User toUserUpdate() {
+        return Mapper.toUserUpdate.apply(user.getId(), serviceRequest);
+    }
+
+    @Benchmark
+    public ControllerResponseBatchItemDTO toControllerResponseBatchItemDTO() {
+        return Mapper.toControllerResponseBatchItemDTO.apply(batchItem);
+    }
+
+    @Benchmark
+    public ServiceRequestOperationDTO toServiceRequestOperationDTO() {
+        return Mapper.toServiceRequestOperationDTO.apply(operationRequest);
+    }
+
+    @Benchmark
+    public ControllerResponseOperationDTO toControllerResponseOperationDTO() {
+        return Mapper.toControllerResponseOperationDTO.apply(operationResponse);
+    }
+
+    @Benchmark
+    public ControllerResponseBulkWriteDTO toControllerResponseBulkWriteDTO() {
+        return Mapper.toControllerResponseBulkWriteDTO.apply(bulkWriteResponse);
+    }
+
+    @Benchmark
+    public List<ServiceResponseUserDTO> toServiceResponseUserDTOs() {
+        return Mapper.toServiceResponseUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<ControllerResponseUserDTO> toControllerResponseUserDTOs() {
+        return Mapper.toControllerResponseUserDTOs(serviceResponses);
+    }
+}
@@ -0,0 +1,114 @@
+package com.technocorp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseUserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson cost of the list response and of the create request, with the ObjectMapper configured the way Spring MVC does,
+ * with and without Afterburner. The gzip benchmark adds the compression Tomcat applies to large responses, both return
+ * the bytes that go on the wire.
+ */
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Users {
+
+        @Param({"10", "100", "1000", "100000"})
+        public int size;
+
+        @Param({"false", "true"})
+        public boolean afterburner;
+
+        private ObjectWriter writer;
+        private List<ControllerResponseUserDTO> responses;
+
+        @Setup
+        public void setup() throws IOException {
+            this.writer = objectMapper(afterburner).writerFor(new TypeReference<List<ControllerResponseUserDTO>>() {});
+            this.responses = Fixtures.responses(size);
+            // Printed once per fork, the bytes per response before and after compression.
+            System.out.printf("%n%,d users: %,d bytes, %,d gzipped%n", size, write(this, false), write(this, true));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Request {
+
+        @Param({"false", "true"})
+        public boolean afterburner;
+
+        private ObjectReader reader;
+        private byte[] json;
+
+        @Setup
+        public void setup() throws IOException {
+            var user = Fixtures.user(1);
+            var objectMapper = objectMapper(afterburner);
+            this.reader = objectMapper.readerFor(ControllerRequestUserDTO.class);
+            this.json = objectMapper.writeValueAsBytes(new ControllerRequestUserDTO(user.getName(),
+                    user.getSurname(), user.getAge(), user.getCpf(), user.getLogin(), user.getPassword()));
+        }
+    }
+
+    @Benchmark
+    public long serializeUsers(Users users) throws IOException {
+        return write(users, false);
+    }
+
+    @Benchmark
+    public long serializeUsersGzip(Users users) throws IOException {
+        return write(users, true);
+    }
+
+    @Benchmark
+    public ControllerRequestUserDTO deserializeRequest(Request request) throws IOException {
+        return request.reader.readValue(request.json);
+    }
+
+    private static long write(Users users, boolean gzip) throws IOException {
+        var out = new CountingOutputStream();
+        try (var body = gzip ? new GZIPOutputStream(out, 8192) : out) {
+            users.writer.writeValue(body, users.responses);
+        }
+        return out.count;
+    }
+
+    private static ObjectMapper objectMapper(boolean afterburner) {
+        var builder = Jackson2ObjectMapperBuilder.json();
+        if (afterburner) {
+            builder.modulesToInstall(new AfterburnerModule());
+        }
+        return builder.build();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
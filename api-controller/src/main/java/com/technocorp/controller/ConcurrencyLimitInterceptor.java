@@ -0,0 +1,65 @@
+package com.technocorp.controller;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.service.UserProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Puts the user endpoints behind a {@link ConcurrencyLimiter} for reads and another for writes, so slow writes
+ * don't take the capacity of reads and the other way around. A request over the limit gets 503 with Retry-After
+ * from the RestExceptionHandler before the controller runs.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = ConcurrencyLimitInterceptor.class.getName() + ".started";
+
+    private final ConcurrencyLimiter reads;
+    private final ConcurrencyLimiter writes;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(UserProperties.Limiter properties) {
+        this.reads = new ConcurrencyLimiter("reads", properties.getReads(), properties.getBackoffRatio());
+        this.writes = new ConcurrencyLimiter("writes", properties.getWrites(), properties.getBackoffRatio());
+        this.retryAfter = properties.getRetryAfter();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        var read = isRead(request);
+        if (!(read ? reads : writes).tryAcquire()) {
+            throw new OverloadedException("Too many " + (read ? "reads" : "writes") + " in progress, try again later",
+                    retryAfter);
+        }
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        var started = (Long) request.getAttribute(STARTED);
+        if (started == null) {
+            return;
+        }
+        request.removeAttribute(STARTED);
+        (isRead(request) ? reads : writes)
+                .release(System.nanoTime() - started, ex != null || response.getStatus() >= 500);
+    }
+
+    ConcurrencyLimiter getReads() {
+        return reads;
+    }
+
+    ConcurrencyLimiter getWrites() {
+        return writes;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        var method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+}
@@ -0,0 +1,90 @@
+package com.technocorp.controller;
+
+import com.technocorp.service.UserProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on the requests of one group running at once, adjusted with AIMD from the latency they finish in.
+ * Every request that finishes under the latency threshold while the limit is in use raises it by one, a slow or
+ * failed one cuts it by the backoff ratio. Requests over the limit are refused right away, so when Mongo slows
+ * down the threads aren't all stuck waiting on it and the requests already admitted keep their latency.
+ */
+public class ConcurrencyLimiter {
+
+    public static final String LIMIT = "users.limiter.limit";
+    public static final String IN_FLIGHT = "users.limiter.in-flight";
+    public static final String REJECTED = "users.limiter.rejected";
+
+    private final UserProperties.Group settings;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile int limit;
+    private long lastDecrease;
+
+    public ConcurrencyLimiter(String group, UserProperties.Group settings, double backoffRatio) {
+        this.settings = settings;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.limit = settings.getInitialLimit();
+        this.lastDecrease = System.nanoTime() - latencyThresholdNanos;
+        var tags = Tags.of("group", group);
+        // Served through the global registry, which Spring Boot adds its registry to.
+        Metrics.gauge(LIMIT, tags, this, ConcurrencyLimiter::getLimit);
+        Metrics.gauge(IN_FLIGHT, tags, inFlight, AtomicInteger::get);
+        this.rejected = Metrics.counter(REJECTED, tags);
+    }
+
+    /**
+     * Takes a slot if the limit allows it, every slot taken must be given back with {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        var inUse = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (inUse * 2 >= limit) {
+            // Only grows while the limit is actually what holds requests back.
+            increase();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(settings.getMaxLimit(), limit + 1);
+    }
+
+    // The requests admitted under the old limit all finish slow, cutting once per threshold reacts to them once.
+    private synchronized void decrease() {
+        var now = System.nanoTime();
+        if (now - lastDecrease < latencyThresholdNanos) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max(settings.getMinLimit(), (int) (limit * backoffRatio));
+    }
+}
@@ -1,15 +1,26 @@
 package com.technocorp.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technocorp.util.dto.ControllerRequestOperationDTO;
 import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseBatchItemDTO;
+import com.technocorp.util.dto.ControllerResponseBulkWriteDTO;
 import com.technocorp.util.dto.ControllerResponseUserDTO;
 import com.technocorp.service.UserServiceImpl;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
 import com.technocorp.util.Mapper;
 import io.swagger.annotations.*;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpStatus.*;
@@ -18,10 +29,18 @@ import static org.springframework.http.HttpStatus.*;
 @AllArgsConstructor
 @RequestMapping("/users")
 @Api("User Resource")
-@CrossOrigin("http://localhost")
+@CrossOrigin(origins = "http://localhost",
+        exposedHeaders = {UserController.NEXT_CURSOR_HEADER, UserController.TOTAL_COUNT_HEADER})
 public class UserController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String DEFAULT_PAGE_SIZE = "100";
+
     private final UserServiceImpl userServiceImpl;
+    private final ObjectMapper objectMapper;
+
+    public enum StreamFormat { NDJSON, ARRAY }
 
     @GetMapping
     @ResponseStatus(OK)
@@ -32,10 +51,49 @@ public class UserController {
             @ApiResponse(code = 404, message = "The resource you requested was not found"),
             @ApiResponse(code = 204, message = "The resource not exist")
     })
-    public List<ControllerResponseUserDTO> listAllUsers() {
-        return userServiceImpl.findAll().stream()
-                .map(Mapper.toControllerResponseUserDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ControllerResponseUserDTO>> listAllUsers(
+            @ApiParam(value = "Maximum number of users in the page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @ApiParam(value = "Cursor returned in the " + NEXT_CURSOR_HEADER + " header of the previous page")
+            @RequestParam(required = false) String after,
+            @ApiParam(value = "Also return the number of users in the " + TOTAL_COUNT_HEADER + " header")
+            @RequestParam(defaultValue = "false") boolean count,
+            @ApiParam(value = "Only users at least this old")
+            @RequestParam(required = false) Integer minAge,
+            @ApiParam(value = "Only users at most this old")
+            @RequestParam(required = false) Integer maxAge,
+            @ApiParam(value = "Only admins, or only users that are not")
+            @RequestParam(required = false) Boolean admin) {
+        if (minAge == null && maxAge == null && admin == null) {
+            return toPageResponse(userServiceImpl.findAll(limit, after), count ? userServiceImpl.count() : null);
+        }
+        return toPageResponse(userServiceImpl.findBySegment(minAge, maxAge, admin, limit, after),
+                count ? userServiceImpl.countBySegment(minAge, maxAge, admin) : null);
+    }
+
+    @RequestMapping(method = RequestMethod.HEAD)
+    @ApiOperation("Count the user resources, the count comes in the " + TOTAL_COUNT_HEADER + " header")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Succefully counted")})
+    public ResponseEntity<Void> countAllUsers(@RequestParam(required = false) Integer minAge,
+                                              @RequestParam(required = false) Integer maxAge,
+                                              @RequestParam(required = false) Boolean admin) {
+        var count = minAge == null && maxAge == null && admin == null
+                ? userServiceImpl.count()
+                : userServiceImpl.countBySegment(minAge, maxAge, admin);
+        return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(count)).build();
+    }
+
+    @GetMapping("/stream")
+    @ApiOperation("Export all user resources as they are read from the database")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Succefully started the export"),
+            @ApiResponse(code = 400, message = "Unknown export format")
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(
+            @ApiParam(value = "NDJSON writes one user per line, ARRAY writes a single JSON array")
+            @RequestParam(defaultValue = "NDJSON") StreamFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format == StreamFormat.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(out -> writeUsers(out, format));
     }
 
     @GetMapping("/{name}")
@@ -47,23 +105,86 @@ public class UserController {
             @ApiResponse(code = 404, message = "The resource you requested was not found"),
             @ApiResponse(code = 204, message = "The resource not exist")
     })
-    public List<ControllerResponseUserDTO> findByName(@PathVariable String name) {
-        return userServiceImpl.findByName(name).stream()
-                .map(Mapper.toControllerResponseUserDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ControllerResponseUserDTO>> findByName(
+            @PathVariable String name,
+            @ApiParam(value = "Maximum number of users in the page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @ApiParam(value = "Cursor returned in the " + NEXT_CURSOR_HEADER + " header of the previous page")
+            @RequestParam(required = false) String after,
+            @ApiParam(value = "Also return the number of users that match in the " + TOTAL_COUNT_HEADER + " header")
+            @RequestParam(defaultValue = "false") boolean count) {
+        return toPageResponse(userServiceImpl.findByName(name, limit, after),
+                count ? userServiceImpl.countByName(name) : null);
+    }
+
+    @RequestMapping(value = "/{name}", method = RequestMethod.HEAD)
+    @ApiOperation("Count the user resources that match the name, the count comes in the " + TOTAL_COUNT_HEADER + " header")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Succefully counted")})
+    public ResponseEntity<Void> countByName(@PathVariable String name) {
+        return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(userServiceImpl.countByName(name))).build();
+    }
+
+    @GetMapping("/cpf/{cpf}")
+    @ResponseStatus(OK)
+    @ApiOperation("Find an user resource by CPF")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Succefully retrieved the user"),
+            @ApiResponse(code = 404, message = "No user has this CPF")
+    })
+    public ControllerResponseUserDTO findByCpf(
+            @ApiParam(value = "The CPF, with or without punctuation")
+            @PathVariable String cpf) {
+        return Mapper.toControllerResponseUserDTO.apply(userServiceImpl.findByCpf(cpf));
     }
 
     @PostMapping
-    @ResponseStatus(CREATED)
     @ApiOperation("save an user resource")
     @ApiResponses(value = {@ApiResponse(code = 200, message = "Successfully retrieved list"),
             @ApiResponse(code = 403, message = "Forbidden to access this resource"),
-            @ApiResponse(code = 201, message = "Resource created with success")
+            @ApiResponse(code = 201, message = "Resource created with success"),
+            @ApiResponse(code = 202, message = "Resource queued to be saved, in write-behind mode"),
+            @ApiResponse(code = 429, message = "Too many resources waiting to be saved, in write-behind mode")
+
+    })
+    public ResponseEntity<ControllerResponseUserDTO> save(@RequestBody ControllerRequestUserDTO requestUserDTO) {
+        var request = Mapper.toServiceRequestUserDTO.apply(requestUserDTO);
+        if (userServiceImpl.writesBehind()) {
+            return ResponseEntity.status(ACCEPTED)
+                    .body(Mapper.toControllerResponseUserDTO.apply(userServiceImpl.enqueue(request)));
+        }
+        return ResponseEntity.status(CREATED)
+                .body(Mapper.toControllerResponseUserDTO.apply(userServiceImpl.save(request)));
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(OK)
+    @ApiOperation("save many user resources with a single database write")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Batch processed, see the result of each user"),
+            @ApiResponse(code = 400, message = "The batch is empty"),
+            @ApiResponse(code = 413, message = "The batch has more users than allowed")
+    })
+    public List<ControllerResponseBatchItemDTO> saveAll(
+            @RequestBody List<ControllerRequestUserDTO> requestUserDTOs,
+            @ApiParam(value = "Stop at the first failing user instead of trying all of them")
+            @RequestParam(defaultValue = "false") boolean ordered) {
+        return userServiceImpl.saveAll(requestUserDTOs.stream()
+                        .map(Mapper.toServiceRequestUserDTO)
+                        .collect(Collectors.toList()), ordered)
+                .stream()
+                .map(Mapper.toControllerResponseBatchItemDTO)
+                .collect(Collectors.toList());
+    }
 
+    @PostMapping("/operations")
+    @ResponseStatus(OK)
+    @ApiOperation("Create, update and delete many user resources with a single database write")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Writes processed, see the outcome of each one"),
+            @ApiResponse(code = 400, message = "No writes were sent"),
+            @ApiResponse(code = 413, message = "More writes than allowed")
     })
-    public ControllerResponseUserDTO save(@RequestBody ControllerRequestUserDTO requestUserDTO) {
-        return Mapper.toControllerResponseUserDTO.apply(
-                userServiceImpl.save(Mapper.toServiceRequestUserDTO.apply(requestUserDTO)));
+    public ControllerResponseBulkWriteDTO bulkWrite(@RequestBody List<ControllerRequestOperationDTO> operations) {
+        return Mapper.toControllerResponseBulkWriteDTO.apply(userServiceImpl.bulkWrite(operations.stream()
+                .map(Mapper.toServiceRequestOperationDTO)
+                .collect(Collectors.toList())));
     }
 
     @PutMapping
@@ -76,6 +197,19 @@ public class UserController {
                 .update(id, Mapper.toServiceRequestUserDTO.apply(requestUserDTO)));
     }
 
+    @PatchMapping("/{id}")
+    @ResponseStatus(OK)
+    @ApiOperation("Update only the given fields of an user resource")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Successfully updated the fields"),
+            @ApiResponse(code = 400, message = "No fields were sent or a field can not be updated"),
+            @ApiResponse(code = 404, message = "The resource you requested was not found")
+    })
+    public ControllerResponseUserDTO patch(@PathVariable String id,
+                                           @ApiParam(value = "the fields to update, null removes the field", required = true)
+                                           @RequestBody Map<String, Object> fields) {
+        return Mapper.toControllerResponseUserDTO.apply(userServiceImpl.patch(id, fields));
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(NO_CONTENT)
     @ApiOperation("Delete an user resource")
@@ -87,4 +221,40 @@ public class UserController {
         userServiceImpl.deleteById(id);
     }
 
+    // Runs on the async executor, so the Mongo cursor is opened, drained and closed on that thread.
+    private void writeUsers(OutputStream out, StreamFormat format) throws IOException {
+        try (var users = userServiceImpl.streamAll();
+             var generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (format == StreamFormat.ARRAY) {
+                generator.writeStartArray();
+            }
+            var iterator = users.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(Mapper.toControllerResponseUserDTO.apply(iterator.next()));
+                if (format == StreamFormat.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+            }
+            if (format == StreamFormat.ARRAY) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private ResponseEntity<List<ControllerResponseUserDTO>> toPageResponse(ServiceResponsePageDTO page, Long totalCount) {
+        var response = ResponseEntity.ok();
+        // With an ETag set, Spring answers a matching If-None-Match with 304 and never serializes the body.
+        if (page.getEtag() != null) {
+            response.eTag(page.getEtag());
+        }
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (totalCount != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(totalCount));
+        }
+        return response.body(Mapper.toControllerResponseUserDTOs(page.getUsers()));
+    }
+
 }
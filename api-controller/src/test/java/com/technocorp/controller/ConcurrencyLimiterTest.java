@@ -0,0 +1,76 @@
+package com.technocorp.controller;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.service.UserProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final UserProperties.Group settings = new UserProperties.Group(4, 2, 6, Duration.ofMillis(100));
+
+    @Test
+    void whenTheLimitIsReachedShouldRejectUntilASlotIsReleased() {
+        var limiter = new ConcurrencyLimiter("test", settings, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void whenRequestsAreFastUnderLoadShouldRaiseTheLimitUpToTheMaximum() {
+        var limiter = new ConcurrencyLimiter("test", settings, 0.5);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void whenRequestsAreSlowShouldCutTheLimitOncePerThreshold() {
+        var limiter = new ConcurrencyLimiter("test", settings, 0.5);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        // Finished in the same window as the first, it is not cut again.
+        limiter.release(SLOW, true);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void whenOverTheLimitTheInterceptorShouldThrowOverloadedAndKeepReadsApartFromWrites() {
+        var properties = new UserProperties.Limiter();
+        properties.getReads().setInitialLimit(1);
+        var interceptor = new ConcurrencyLimitInterceptor(properties);
+        var response = new MockHttpServletResponse();
+        var read = new MockHttpServletRequest("GET", "/users");
+        assertTrue(interceptor.preHandle(read, response, null));
+        assertThrows(OverloadedException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/users"), response, null));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/users"), response, null));
+        interceptor.afterCompletion(read, response, null, null);
+        assertEquals(0, interceptor.getReads().getInFlight());
+        assertEquals(1, interceptor.getWrites().getInFlight());
+    }
+}
@@ -1,10 +1,20 @@
 package com.technocorp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technocorp.util.dto.ControllerRequestOperationDTO;
 import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseBatchItemDTO;
 import com.technocorp.util.dto.ControllerResponseUserDTO;
 import com.technocorp.model.User;
 import com.technocorp.service.UserServiceImpl;
+import com.technocorp.util.dto.OperationStatus;
+import com.technocorp.util.dto.OperationType;
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBulkWriteDTO;
+import com.technocorp.util.dto.ServiceResponseOperationDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,13 +22,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +51,9 @@ class UserControllerTest {
     @Mock
     UserServiceImpl userServiceImpl;
 
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     UserController userController;
 
@@ -42,7 +64,7 @@ class UserControllerTest {
                 .id("1")
                 .name("Andrews")
                 .surname("Souza")
-                .age("20")
+                .age(20)
                 .cpf("123")
                 .login("andrews")
                 .password("123")
@@ -89,8 +111,8 @@ class UserControllerTest {
     @Test
     @DisplayName("Should return a list of users")
     void whenFindAllshouldReturnAListOfUsers() {
-        when(userServiceImpl.findAll()).thenReturn(Collections.singletonList(serviceResponseUserDTO));
-        var stubActual = userController.listAllUsers();
+        when(userServiceImpl.findAll(100, null)).thenReturn(pageOf(serviceResponseUserDTO));
+        var stubActual = userController.listAllUsers(100, null, false, null, null, null).getBody();
         var stubExpected = Stream.of(this.responseUserDTO)
                 .map(dto -> ControllerResponseUserDTO.builder()
                         .id(dto.getId())
@@ -107,8 +129,8 @@ class UserControllerTest {
     @Test
     @DisplayName("Should return a list of users that match the name")
     void whenFindByIdShouldReturnAListOfUsersThatMatchTheName() {
-        when(userServiceImpl.findByName(this.requestUserDTO.getName())).thenReturn(Collections.singletonList(serviceResponseUserDTO));
-        var stubActual = userController.findByName(this.requestUserDTO.getName());
+        when(userServiceImpl.findByName(this.requestUserDTO.getName(), 100, null)).thenReturn(pageOf(serviceResponseUserDTO));
+        var stubActual = userController.findByName(this.requestUserDTO.getName(), 100, null, false).getBody();
         var stubExpected = Stream.of(this.responseUserDTO)
                 .map(dto -> ControllerResponseUserDTO.builder()
                         .id(dto.getId())
@@ -122,11 +144,102 @@ class UserControllerTest {
         assertEquals(stubExpected, stubActual);
     }
 
+    @Test
+    @DisplayName("Should return the user with the CPF")
+    void whenFindByCpfShouldReturnTheUser() {
+        when(userServiceImpl.findByCpf("123")).thenReturn(serviceResponseUserDTO);
+        assertEquals(this.responseUserDTO, userController.findByCpf("123"));
+    }
+
+    @Test
+    @DisplayName("Should expose the next page cursor as a header")
+    void whenFindAllHasNextPageShouldReturnTheCursorHeader() {
+        var page = ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(serviceResponseUserDTO))
+                .nextCursor("MQ")
+                .build();
+        when(userServiceImpl.findAll(1, null)).thenReturn(page);
+        var stubActual = userController.listAllUsers(1, null, false, null, null, null);
+        assertEquals("MQ", stubActual.getHeaders().getFirst(UserController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should not send a cursor header on the last page")
+    void whenFindAllIsLastPageShouldNotReturnTheCursorHeader() {
+        when(userServiceImpl.findAll(100, "MQ")).thenReturn(pageOf(serviceResponseUserDTO));
+        var stubActual = userController.listAllUsers(100, "MQ", false, null, null, null);
+        assertFalse(stubActual.getHeaders().containsKey(UserController.NEXT_CURSOR_HEADER));
+        assertFalse(stubActual.getHeaders().containsKey(UserController.TOTAL_COUNT_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should return the total count as a header when asked for")
+    void whenFindAllWithCountShouldReturnTheTotalCountHeader() {
+        when(userServiceImpl.findAll(100, null)).thenReturn(pageOf(serviceResponseUserDTO));
+        when(userServiceImpl.count()).thenReturn(42L);
+        var stubActual = userController.listAllUsers(100, null, true, null, null, null);
+        assertEquals("42", stubActual.getHeaders().getFirst(UserController.TOTAL_COUNT_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should return the page of the segment when filtering by age or admin")
+    void whenFindAllWithAgeRangeShouldReturnTheSegmentWithItsCount() {
+        when(userServiceImpl.findBySegment(30, 45, null, 100, null)).thenReturn(pageOf(serviceResponseUserDTO));
+        when(userServiceImpl.countBySegment(30, 45, null)).thenReturn(7L);
+        var stubActual = userController.listAllUsers(100, null, true, 30, 45, null);
+        assertEquals(1, stubActual.getBody().size());
+        assertEquals("7", stubActual.getHeaders().getFirst(UserController.TOTAL_COUNT_HEADER));
+        verify(userServiceImpl, never()).findAll(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should return only the count of the users that match the name")
+    void whenCountByNameShouldReturnTheCountHeaderWithoutBody() {
+        when(userServiceImpl.countByName("Andrews")).thenReturn(3L);
+        var stubActual = userController.countByName("Andrews");
+        assertEquals("3", stubActual.getHeaders().getFirst(UserController.TOTAL_COUNT_HEADER));
+        assertNull(stubActual.getBody());
+    }
+
+    @Test
+    @DisplayName("Should write one user per line when streaming as NDJSON")
+    void whenStreamAsNdjsonShouldWriteOneUserPerLine() throws Exception {
+        when(userServiceImpl.streamAll()).thenReturn(Stream.of(serviceResponseUserDTO, serviceResponseUserDTO));
+        var out = new ByteArrayOutputStream();
+        userController.streamAllUsers(UserController.StreamFormat.NDJSON).getBody().writeTo(out);
+        var expectedLine = objectMapper.writeValueAsString(this.responseUserDTO);
+        assertEquals(expectedLine + "\n" + expectedLine + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write a JSON array when streaming as ARRAY")
+    void whenStreamAsArrayShouldWriteAJsonArray() throws Exception {
+        when(userServiceImpl.streamAll()).thenReturn(Stream.of(serviceResponseUserDTO));
+        var out = new ByteArrayOutputStream();
+        var response = userController.streamAllUsers(UserController.StreamFormat.ARRAY);
+        response.getBody().writeTo(out);
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(objectMapper.writeValueAsString(Collections.singletonList(this.responseUserDTO)),
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should accept the user with its id in write-behind mode")
+    void whenWritesBehindShouldReturnAcceptedWithTheQueuedUser() {
+        when(userServiceImpl.writesBehind()).thenReturn(true);
+        when(userServiceImpl.enqueue(this.serviceRequestUserDTO)).thenReturn(this.serviceResponseUserDTO);
+        var stubActual = userController.save(this.requestUserDTO);
+        assertEquals(HttpStatus.ACCEPTED, stubActual.getStatusCode());
+        assertEquals(this.serviceResponseUserDTO.getId(), stubActual.getBody().getId());
+        verify(userServiceImpl, never()).save(any());
+    }
+
     @Test
     @DisplayName("Should return the saved user")
     void whenSaveShouldReturnTheUserSaved() {
         when(userServiceImpl.save(this.serviceRequestUserDTO)).thenReturn(this.serviceResponseUserDTO);
         var stubActual = userController.save(this.requestUserDTO);
+        assertEquals(HttpStatus.CREATED, stubActual.getStatusCode());
         var stubExpected = ControllerResponseUserDTO.builder()
                 .id(this.serviceResponseUserDTO.getId())
                 .name(this.serviceResponseUserDTO.getName())
@@ -135,7 +248,32 @@ class UserControllerTest {
                 .cpf(this.serviceResponseUserDTO.getCpf())
                 .admin(this.serviceResponseUserDTO.isAdmin())
                 .build();
-        assertEquals(stubExpected, stubActual);
+        assertEquals(stubExpected, stubActual.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return the result of each user of the batch")
+    void whenSaveAllShouldReturnTheResultOfEachUser() {
+        when(userServiceImpl.saveAll(List.of(this.serviceRequestUserDTO), true)).thenReturn(List.of(
+                ServiceResponseBatchItemDTO.builder().index(0).id("1").build()));
+        var stubActual = userController.saveAll(List.of(this.requestUserDTO), true);
+        assertEquals(List.of(ControllerResponseBatchItemDTO.builder().index(0).id("1").build()), stubActual);
+    }
+
+    @Test
+    @DisplayName("Should return the outcome of each write of the bulk write")
+    void whenBulkWriteShouldReturnTheOutcomeOfEachWrite() {
+        var operation = ControllerRequestOperationDTO.builder().type(OperationType.DELETE).id("1").build();
+        when(userServiceImpl.bulkWrite(List.of(ServiceRequestOperationDTO.builder()
+                .type(OperationType.DELETE).id("1").build())))
+                .thenReturn(ServiceResponseBulkWriteDTO.builder()
+                        .deleted(1)
+                        .operations(List.of(ServiceResponseOperationDTO.builder()
+                                .type(OperationType.DELETE).id("1").status(OperationStatus.DELETED).build()))
+                        .build());
+        var stubActual = userController.bulkWrite(List.of(operation));
+        assertEquals(1, stubActual.getDeleted());
+        assertEquals(OperationStatus.DELETED, stubActual.getOperations().get(0).getStatus());
     }
 
     @Test
@@ -154,10 +292,26 @@ class UserControllerTest {
         assertEquals(stubExpected, stubActual);
     }
 
+    @Test
+    @DisplayName("Should return the user with the patched fields")
+    void whenPatchShouldReturnTheUserUpdated() {
+        Map<String, Object> fields = Map.of("surname", "Souza");
+        when(userServiceImpl.patch("1", fields)).thenReturn(this.serviceResponseUserDTO);
+        var stubActual = userController.patch("1", fields);
+        assertEquals(this.responseUserDTO.getSurname(), stubActual.getSurname());
+        assertEquals(this.responseUserDTO.getId(), stubActual.getId());
+    }
+
     @Test
     @DisplayName("Should verify if the delete method is acessed")
     void whenDeleteByIdShouldReturnNothing() {
         userController.deleteById("1");
         verify(userServiceImpl, times(1)).deleteById("1");
     }
+
+    private static ServiceResponsePageDTO pageOf(ServiceResponseUserDTO user) {
+        return ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(user))
+                .build();
+    }
 }
@@ -0,0 +1,30 @@
+package com.technocorp.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * A 503 thrown before any work is done, when there is no capacity left for the request.
+ * It tells the client in Retry-After when to come back.
+ */
+public class OverloadedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String reason, Duration retryAfter) {
+        super(SERVICE_UNAVAILABLE, reason);
+        // Retry-After only takes whole seconds.
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -1,6 +1,7 @@
 package com.technocorp.exception;
 
-import org.springframework.http.HttpHeaders;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,16 +12,19 @@ import org.springframework.web.server.ResponseStatusException;
 import java.io.IOException;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
 @RestControllerAdvice
 public class RestExceptionHandler {
 
+    public static final String ERRORS = "users.errors";
 
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<StandardError> handleResponseStatusException(ResponseStatusException e) {
+        count(e.getRawStatusCode(), e);
         return ResponseEntity.status(e.getStatus())
-                .headers(HttpHeaders.EMPTY)
+                .headers(e.getResponseHeaders())
                 .body(StandardError.builder()
                         .status(e.getRawStatusCode())
                         .message(e.getMessage())
@@ -30,15 +34,28 @@ public class RestExceptionHandler {
     @ExceptionHandler(HttpMessageNotReadableException.class)
     @ResponseStatus(BAD_REQUEST)
     public StandardError handleHttpMessageNotReadableException(HttpMessageNotReadableException e) {
+        count(BAD_REQUEST.value(), e);
         return StandardError.builder()
                 .status(BAD_REQUEST.value())
                 .message("You need to provide a resource to save!")
                 .build();
     }
 
+    // The cpf index is the only unique one besides _id, which is never sent on inserts.
+    @ExceptionHandler(DuplicateKeyException.class)
+    @ResponseStatus(CONFLICT)
+    public StandardError handleDuplicateKeyException(DuplicateKeyException e) {
+        count(CONFLICT.value(), e);
+        return StandardError.builder()
+                .status(CONFLICT.value())
+                .message("There is already an user with this CPF")
+                .build();
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(INTERNAL_SERVER_ERROR)
     public StandardError handleGeneralExceptions(Exception e) {
+        count(INTERNAL_SERVER_ERROR.value(), e);
         return StandardError.builder()
                 .status(INTERNAL_SERVER_ERROR.value())
                 .message(e.getMessage())
@@ -49,6 +66,7 @@ public class RestExceptionHandler {
     @ExceptionHandler(RuntimeException.class)
     @ResponseStatus(INTERNAL_SERVER_ERROR)
     public StandardError handleRuntimeExceptions(RuntimeException e) {
+        count(INTERNAL_SERVER_ERROR.value(), e);
         return StandardError.builder()
                 .status(INTERNAL_SERVER_ERROR.value())
                 .message("Unexpected Error!")
@@ -58,10 +76,17 @@ public class RestExceptionHandler {
     @ExceptionHandler(IOException.class)
     @ResponseStatus(INTERNAL_SERVER_ERROR)
     public StandardError handleIoExceptionExceptions(IOException e) {
+        count(INTERNAL_SERVER_ERROR.value(), e);
         return StandardError.builder()
                 .status(INTERNAL_SERVER_ERROR.value())
                 .message("Input/Output error")
                 .build();
     }
 
+    // Served through the global registry, which Spring Boot adds its registry to.
+    private static void count(int status, Exception e) {
+        Metrics.counter(ERRORS, "status", String.valueOf(status), "exception", e.getClass().getSimpleName())
+                .increment();
+    }
+
 }
@@ -1,8 +1,12 @@
+import com.technocorp.exception.OverloadedException;
 import com.technocorp.exception.RestExceptionHandler;
 import com.technocorp.exception.StandardError;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +15,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -40,6 +45,16 @@ class RestExceptionHandlerTest {
         assertEquals(stubExpected,stubActual);
     }
 
+    @Test
+    void shouldReturnConflictForADuplicateKey() {
+        var stubExpected = StandardError.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message("There is already an user with this CPF")
+                .build();
+        var stubActual = exceptionHandler.handleDuplicateKeyException(new DuplicateKeyException("E11000"));
+        assertEquals(stubExpected, stubActual);
+    }
+
     @Test
     void shouldReturnPrettyIoException() {
         var stubExpected = StandardError.builder()
@@ -64,4 +79,29 @@ class RestExceptionHandlerTest {
                 .handleResponseStatusException(exception);
         assertEquals(stubExcpected, stubActual);
     }
+
+    @Test
+    void shouldReturnRetryAfterWhenOverloaded() {
+        var stubActual = exceptionHandler.handleResponseStatusException(
+                new OverloadedException("Too many reads in progress, try again later", Duration.ofSeconds(2)));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, stubActual.getStatusCode());
+        assertEquals("2", stubActual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, stubActual.getBody().getStatus());
+    }
+
+    @Test
+    void shouldCountTheErrorByStatus() {
+        var registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            exceptionHandler.handleResponseStatusException(new ResponseStatusException(HttpStatus.NOT_FOUND, "test"));
+            exceptionHandler.handleResponseStatusException(new ResponseStatusException(HttpStatus.NOT_FOUND, "test"));
+            assertEquals(2, registry.get(RestExceptionHandler.ERRORS)
+                    .tag("status", "404")
+                    .tag("exception", "ResponseStatusException")
+                    .counter().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.technocorp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one endpoint in nanoseconds, measured from when the request was due to be sent. Failures are the
+ * requests that got no response or a 5xx; other responses outside 2xx, like a 409 or a 429, are counted apart.
+ */
+public class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder non2xx = new LongAdder();
+
+    /**
+     * Records a request, with the status it was answered with or 0 when it got no response.
+     */
+    public void record(long latencyNanos, int status) {
+        latencies.recordValue(latencyNanos);
+        if (status == 0 || status >= 500) {
+            failures.increment();
+        } else if (status < 200 || status >= 300) {
+            non2xx.increment();
+        }
+    }
+
+    public long count() {
+        return latencies.getTotalCount();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long non2xx() {
+        return non2xx.sum();
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        return latencies.getMaxValue() / 1_000_000.0;
+    }
+}
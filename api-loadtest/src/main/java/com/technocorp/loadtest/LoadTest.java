@@ -0,0 +1,113 @@
+package com.technocorp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.technocorp.ApiApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the API on a random port against an embedded Mongo, seeds it, runs one scenario and reports
+ * throughput and latency percentiles per endpoint. Run it with ./gradlew loadTest -PloadTestArgs="--scenario=search".
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        var options = LoadTestOptions.parse(args);
+        var objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        try (var context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties("server.port=0",
+                        "spring.data.mongodb.port=0",
+                        "spring.mongodb.embedded.version=4.0.2",
+                        // The embedded Mongo starts empty, the indexes are built on startup before anything is seeded.
+                        "users.indexes.ensure=true",
+                        "logging.level.root=WARN",
+                        "logging.level.com.technocorp.loadtest=INFO")
+                .run()) {
+            var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var workload = new Workload("http://localhost:" + port, options.getScenario(), options.getSeed(), objectMapper);
+            workload.seeded(seed(workload, options.getUsers(), objectMapper));
+            log.info("Running {} at {} requests/s for {} after a {} warm-up", options.getScenario(), options.getRps(),
+                    options.getDuration(), options.getWarmup());
+            var stats = new OpenLoopRunner(objectMapper).run(workload, options);
+            report(options, stats, objectMapper);
+        }
+    }
+
+    private static List<String> seed(Workload workload, int users, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        var client = HttpClient.newHttpClient();
+        var ids = new ArrayList<String>(users);
+        while (ids.size() < users) {
+            var batch = workload.newUsers(Math.min(SEED_BATCH_SIZE, users - ids.size()));
+            var response = client.send(workload.json("POST", "/users/batch", batch), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            // Users that could not be saved come back with an error instead of an id.
+            objectMapper.readTree(response.body()).forEach(item -> {
+                if (item.path("id").isTextual()) {
+                    ids.add(item.path("id").asText());
+                }
+            });
+        }
+        return ids;
+    }
+
+    private static void report(LoadTestOptions options, Map<Scenario.Request, EndpointStats> stats,
+                               ObjectMapper objectMapper) throws IOException {
+        var seconds = options.getDuration().toMillis() / 1000.0;
+        var endpoints = new LinkedHashMap<String, Object>();
+        var table = new StringBuilder(String.format("%n%-20s %9s %9s %9s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "failures", "non-2xx", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        stats.forEach((request, endpoint) -> {
+            if (endpoint.count() == 0) {
+                return;
+            }
+            var row = new LinkedHashMap<String, Object>();
+            row.put("requests", endpoint.count());
+            row.put("failures", endpoint.failures());
+            row.put("non2xx", endpoint.non2xx());
+            row.put("throughput", endpoint.count() / seconds);
+            row.put("p50", endpoint.percentileMillis(50));
+            row.put("p99", endpoint.percentileMillis(99));
+            row.put("p999", endpoint.percentileMillis(99.9));
+            row.put("max", endpoint.maxMillis());
+            endpoints.put(request.endpoint(), row);
+            table.append(String.format("%-20s %9d %9d %9d %10.1f %10.2f %10.2f %10.2f %10.2f%n", request.endpoint(),
+                    endpoint.count(), endpoint.failures(), endpoint.non2xx(), endpoint.count() / seconds,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(99), endpoint.percentileMillis(99.9),
+                    endpoint.maxMillis()));
+        });
+        System.out.println(table);
+
+        var result = new LinkedHashMap<String, Object>();
+        var run = new LinkedHashMap<String, Object>();
+        run.put("scenario", options.getScenario());
+        run.put("rps", options.getRps());
+        run.put("warmup", options.getWarmup().toString());
+        run.put("duration", options.getDuration().toString());
+        run.put("users", options.getUsers());
+        run.put("seed", options.getSeed());
+        result.put("options", run);
+        result.put("endpoints", endpoints);
+        var file = Path.of(options.getOutput(), options.getScenario().name().toLowerCase() + "-" + options.getRps() + ".json");
+        Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), result);
+        log.info("Results written to {}", file.toAbsolutePath());
+    }
+}
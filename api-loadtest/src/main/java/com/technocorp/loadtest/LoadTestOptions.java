@@ -0,0 +1,40 @@
+package com.technocorp.loadtest;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a run, given as --name=value arguments. Every option has a default so runs are comparable out of the box.
+ */
+@Value
+public class LoadTestOptions {
+
+    Scenario scenario;
+    int rps;
+    Duration warmup;
+    Duration duration;
+    int users;
+    long seed;
+    String output;
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadTestOptions(
+                Scenario.valueOf(values.getOrDefault("scenario", "mixed").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("rps", "500")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("output", "build/reports/loadtest"));
+    }
+}
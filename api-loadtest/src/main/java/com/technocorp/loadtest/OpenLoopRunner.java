@@ -0,0 +1,90 @@
+package com.technocorp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on a fixed schedule whatever the response times are, so a slow server cannot slow the load down.
+ * Each latency is measured from the time the request was due, not from when it was actually sent,
+ * which keeps queueing delay in the numbers instead of hiding it (coordinated omission).
+ */
+@Slf4j
+public class OpenLoopRunner {
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper;
+    private final Map<Scenario.Request, EndpointStats> stats = new EnumMap<>(Scenario.Request.class);
+
+    public OpenLoopRunner(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (var request : Scenario.Request.values()) {
+            stats.put(request, new EndpointStats());
+        }
+    }
+
+    public Map<Scenario.Request, EndpointStats> run(Workload workload, LoadTestOptions options) throws InterruptedException {
+        var interval = TimeUnit.SECONDS.toNanos(1) / options.getRps();
+        var start = System.nanoTime();
+        var measureFrom = start + options.getWarmup().toNanos();
+        var end = measureFrom + options.getDuration().toNanos();
+        var outstanding = new AtomicLong();
+        for (long sent = 0; ; sent++) {
+            var due = start + sent * interval;
+            if (due >= end) {
+                break;
+            }
+            var wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            var kind = workload.nextKind();
+            var measured = due >= measureFrom;
+            outstanding.incrementAndGet();
+            client.sendAsync(workload.next(kind), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        try {
+                            var latency = System.nanoTime() - due;
+                            var status = error == null ? response.statusCode() : 0;
+                            if (measured) {
+                                stats.get(kind).record(latency, status);
+                            }
+                            // 201 when saved right away, 202 when queued by the write-behind; nothing else made a user.
+                            if (kind == Scenario.Request.CREATE && (status == 201 || status == 202)) {
+                                var id = idOf(response.body());
+                                if (id != null) {
+                                    workload.created(id);
+                                }
+                            }
+                        } finally {
+                            outstanding.decrementAndGet();
+                        }
+                    });
+        }
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (outstanding.get() > 0) {
+            log.warn("{} requests were still running when the run ended and are left out", outstanding.get());
+        }
+        return stats;
+    }
+
+    private String idOf(String body) {
+        try {
+            var id = objectMapper.readTree(body).path("id");
+            return id.isTextual() ? id.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.technocorp.loadtest;
+
+/**
+ * Request mixes, in percent of the requests sent. Each request kind is also the endpoint it is reported under.
+ */
+public enum Scenario {
+
+    SEARCH(new int[]{90, 10, 0, 0, 0, 0}),
+    PAGING(new int[]{0, 100, 0, 0, 0, 0}),
+    WRITES(new int[]{0, 0, 50, 10, 30, 10}),
+    MIXED(new int[]{50, 25, 10, 2, 10, 3});
+
+    public enum Request {
+        SEARCH("GET /users/{name}"),
+        LIST("GET /users"),
+        CREATE("POST /users"),
+        CREATE_BATCH("POST /users/batch"),
+        PATCH("PATCH /users/{id}"),
+        DELETE("DELETE /users/{id}");
+
+        private final String endpoint;
+
+        Request(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String endpoint() {
+            return endpoint;
+        }
+    }
+
+    private final int[] weights;
+
+    Scenario(int[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Picks the request for a roll between 0 and 99.
+     */
+    public Request pick(int roll) {
+        var requests = Request.values();
+        var bound = 0;
+        for (int i = 0; i < weights.length; i++) {
+            bound += weights[i];
+            if (roll < bound) {
+                return requests[i];
+            }
+        }
+        throw new IllegalStateException("The weights of " + this + " do not add up to 100");
+    }
+}
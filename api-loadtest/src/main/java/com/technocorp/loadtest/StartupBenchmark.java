@@ -0,0 +1,211 @@
+package com.technocorp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a new instance of the API takes to answer its first request: with the default settings,
+ * with the fast-startup profile, and with the fast-startup profile on a CDS archive made for the classpath.
+ * Every start is a new JVM, timed from launching it to the first response of the liveness probe, and the modes
+ * take turns so they share any noise of the machine. Mongo isn't needed, nothing on the way reaches it once the
+ * startup index build is turned off.
+ * Run it with ./gradlew startupBenchmark -PstartupArgs="--runs=10".
+ * With {@code --archive-only=true} it only makes the CDS archive, in {@code --directory} with the classpath as given,
+ * which is how ./gradlew cdsArchive makes the one that ships next to the application.
+ */
+@Slf4j
+public class StartupBenchmark {
+
+    enum Mode { DEFAULT, FAST_STARTUP, FAST_STARTUP_CDS }
+
+    private static final String MAIN = "com.technocorp.ApiApplication";
+    private static final String PROFILE = "--spring.profiles.active=fast-startup";
+
+    private final String classpath;
+    private final String path;
+    private final Duration timeout;
+    private final Path output;
+    private final Path archive;
+    // The JVMs are started here: a CDS archive only maps for the classpath it was made with, relative paths included.
+    private final Path directory;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+
+    private StartupBenchmark(String classpath, String path, Duration timeout, Path output, Path archive, Path directory) {
+        this.classpath = classpath;
+        this.path = path;
+        this.timeout = timeout;
+        this.output = output;
+        this.archive = archive;
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        if (!options.containsKey("classpath")) {
+            throw new IllegalArgumentException("--classpath is required, the jars to start the application from");
+        }
+        var runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        var output = Path.of(options.getOrDefault("output", "build/reports/startup")).toAbsolutePath();
+        var benchmark = new StartupBenchmark(options.get("classpath"),
+                options.getOrDefault("path", "/actuator/health/liveness"),
+                Duration.parse("PT" + options.getOrDefault("timeout", "120s")),
+                output,
+                Path.of(options.getOrDefault("archive", output.resolve("app.jsa").toString())).toAbsolutePath(),
+                Path.of(options.getOrDefault("directory", ".")).toAbsolutePath());
+        if (Boolean.parseBoolean(options.getOrDefault("archive-only", "false"))) {
+            Files.createDirectories(benchmark.output);
+            benchmark.createArchive();
+        } else {
+            benchmark.run(runs);
+        }
+    }
+
+    private void run(int runs) throws IOException, InterruptedException {
+        Files.createDirectories(output);
+        createArchive();
+        Map<Mode, List<Long>> millis = new EnumMap<>(Mode.class);
+        for (int run = 1; run <= runs; run++) {
+            for (var mode : Mode.values()) {
+                var elapsed = timeToFirstRequest(command(mode), mode.name().toLowerCase() + "-" + run);
+                millis.computeIfAbsent(mode, m -> new ArrayList<>()).add(elapsed);
+                log.info("Run {} of {}, {}: first request answered after {} ms", run, runs, mode, elapsed);
+            }
+        }
+        report(millis);
+    }
+
+    // A training run writes the classes it loads up to its first request, which are then dumped into the archive.
+    private void createArchive() throws IOException, InterruptedException {
+        var classList = output.resolve("classes.lst");
+        var training = command(List.of("-Xshare:off", "-XX:DumpLoadedClassList=" + classList), PROFILE);
+        log.info("Training run for the CDS archive took {} ms", timeToFirstRequest(training, "cds-training"));
+        var dump = new ProcessBuilder(javaWith("-Xshare:dump", "-XX:SharedClassListFile=" + classList,
+                "-XX:SharedArchiveFile=" + archive, "-cp", classpath))
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(output.resolve("cds-dump.log").toFile())
+                .start();
+        if (dump.waitFor() != 0) {
+            throw new IllegalStateException("Could not create the CDS archive, see " + output.resolve("cds-dump.log"));
+        }
+        log.info("CDS archive of {} KB written to {}", Files.size(archive) / 1024, archive);
+    }
+
+    private List<String> command(Mode mode) {
+        switch (mode) {
+            case FAST_STARTUP:
+                return command(List.of(), PROFILE);
+            case FAST_STARTUP_CDS:
+                return command(List.of("-Xshare:on", "-XX:SharedArchiveFile=" + archive), PROFILE);
+            default:
+                return command(List.of());
+        }
+    }
+
+    private List<String> command(List<String> jvmOptions, String... applicationArgs) {
+        var command = javaWith(jvmOptions.toArray(new String[0]));
+        // There is no Mongo to build the indexes on.
+        command.addAll(List.of("-cp", classpath, MAIN, "--logging.level.root=WARN", "--users.indexes.ensure=false"));
+        command.addAll(List.of(applicationArgs));
+        return command;
+    }
+
+    private static List<String> javaWith(String... options) {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(options));
+        return command;
+    }
+
+    private long timeToFirstRequest(List<String> command, String name) throws IOException, InterruptedException {
+        var port = freePort();
+        var withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        var log = output.resolve(name + ".log");
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        var start = System.nanoTime();
+        var process = new ProcessBuilder(withPort)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            var deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (IOException notListeningYet) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("The application exited while starting, see " + log);
+                    }
+                    Thread.sleep(5);
+                }
+            }
+            throw new IllegalStateException("No answer on " + path + " within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void report(Map<Mode, List<Long>> millis) throws IOException {
+        var baseline = median(millis.get(Mode.DEFAULT));
+        var modes = new LinkedHashMap<String, Object>();
+        var table = new StringBuilder(String.format("%n%-18s %8s %8s %8s %12s%n",
+                "mode", "min ms", "p50 ms", "max ms", "vs default"));
+        millis.forEach((mode, runs) -> {
+            var median = median(runs);
+            var row = new LinkedHashMap<String, Object>();
+            row.put("runs", runs);
+            row.put("min", runs.stream().mapToLong(Long::longValue).min().orElseThrow());
+            row.put("p50", median);
+            row.put("max", runs.stream().mapToLong(Long::longValue).max().orElseThrow());
+            modes.put(mode.name().toLowerCase(), row);
+            table.append(String.format("%-18s %8d %8d %8d %11.0f%%%n", mode.name().toLowerCase(), row.get("min"),
+                    median, row.get("max"), 100.0 * median / baseline));
+        });
+        System.out.println(table);
+        var file = output.resolve("startup.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(),
+                Map.of("path", path, "modes", modes));
+        log.info("Results written to {}", file.toAbsolutePath());
+    }
+
+    private static long median(List<Long> runs) {
+        var sorted = runs.stream().sorted().mapToLong(Long::longValue).toArray();
+        return sorted[sorted.length / 2];
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
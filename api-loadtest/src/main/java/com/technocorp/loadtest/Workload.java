@@ -0,0 +1,127 @@
+package com.technocorp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technocorp.util.Cursor;
+import com.technocorp.util.dto.ControllerRequestUserDTO;
+
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Builds the requests of a run from a seeded random, so the same options send the same sequence of requests.
+ */
+public class Workload {
+
+    private static final String[] NAMES = {"Ana", "André", "Andrews", "Beatriz", "Bruno", "Camila", "Carlos",
+            "Daniela", "Diego", "Eduarda", "Felipe", "Gabrielli", "Gustavo", "Helena", "João", "Júlia", "Lucas",
+            "Mariana", "Matheus", "Otávio", "Patrícia", "Rafael", "Sofia", "Thiago", "Vitória"};
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 100;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final Scenario scenario;
+    private final Random random;
+    private final ObjectMapper objectMapper;
+    private final List<String> seededIds = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> deletableIds = new ConcurrentLinkedQueue<>();
+
+    public Workload(String baseUrl, Scenario scenario, long seed, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.random = new Random(seed);
+        this.objectMapper = objectMapper;
+    }
+
+    public void seeded(List<String> ids) {
+        seededIds.addAll(ids);
+    }
+
+    /**
+     * Users created during the run, the only ones DELETE picks from so the seeded data stays the same.
+     */
+    public void created(String id) {
+        deletableIds.add(id);
+    }
+
+    public List<ControllerRequestUserDTO> newUsers(int count) {
+        var users = new ArrayList<ControllerRequestUserDTO>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(newUser());
+        }
+        return users;
+    }
+
+    public Scenario.Request nextKind() {
+        return scenario.pick(random.nextInt(100));
+    }
+
+    public HttpRequest next(Scenario.Request kind) {
+        switch (kind) {
+            case SEARCH:
+                var name = NAMES[random.nextInt(NAMES.length)];
+                var prefix = name.substring(0, 1 + random.nextInt(name.length()));
+                return get("/users/" + URLEncoder.encode(prefix, StandardCharsets.UTF_8).replace("+", "%20")
+                        + "?limit=" + PAGE_SIZE);
+            case LIST:
+                // One list in ten starts from the beginning, the others jump to a random page.
+                return random.nextInt(10) == 0
+                        ? get("/users?limit=" + PAGE_SIZE)
+                        : get("/users?limit=" + PAGE_SIZE + "&after=" + Cursor.encode(randomSeededId()));
+            case CREATE:
+                return json("POST", "/users", newUser());
+            case CREATE_BATCH:
+                return json("POST", "/users/batch", newUsers(BATCH_SIZE));
+            case PATCH:
+                return json("PATCH", "/users/" + randomSeededId(), Map.of("age", 18 + random.nextInt(60)));
+            default:
+                var id = deletableIds.poll();
+                return builder("/users/" + (id == null ? randomSeededId() + "-missing" : id)).DELETE().build();
+        }
+    }
+
+    public HttpRequest json(String method, String path, Object body) {
+        try {
+            return builder(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private String randomSeededId() {
+        return seededIds.get(random.nextInt(seededIds.size()));
+    }
+
+    private ControllerRequestUserDTO newUser() {
+        var name = NAMES[random.nextInt(NAMES.length)];
+        return ControllerRequestUserDTO.builder()
+                .name(name)
+                .surname("Load " + random.nextInt(1_000_000))
+                .age(18 + random.nextInt(60))
+                .cpf(String.format("%011d", random.nextInt(Integer.MAX_VALUE)))
+                .login(name.toLowerCase() + random.nextInt(1_000_000))
+                .password("password")
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.technocorp.loadtest;
+
+import com.technocorp.ApiApplication;
+import com.technocorp.migration.CpfMigration;
+import com.technocorp.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The unique cpf index is built on the raw values at startup, before any CPF was normalized.
+// The first run downloads the MongoDB binaries into ~/.embedmongo, like the load test.
+@SpringBootTest(classes = ApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.data.mongodb.port=0", "spring.mongodb.embedded.version=4.0.2"})
+class CpfMigrationTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Test
+    void whenCpfsDifferOnlyInPunctuationShouldKeepTheOldestAndMoveTheOthersAside() {
+        var collection = mongoTemplate.getCollectionName(User.class);
+        mongoTemplate.getCollection(collection).insertMany(List.of(
+                new Document("_id", new ObjectId("5fd0e8a2c1a3b2d4e6f80001")).append("cpf", "52998224725"),
+                new Document("_id", new ObjectId("5fd0e8a2c1a3b2d4e6f80002")).append("cpf", "529.982.247-25"),
+                new Document("_id", new ObjectId("5fd0e8a2c1a3b2d4e6f80003")).append("cpf", "529 982 247 25")));
+
+        new CpfMigration(mongoTemplate).run(null);
+
+        var users = mongoTemplate.getCollection(collection).find().sort(new Document("_id", 1)).into(new ArrayList<>());
+        assertEquals("52998224725", users.get(0).getString("cpf"));
+        for (var moved : users.subList(1, 3)) {
+            assertNull(moved.getString("cpf"));
+            assertEquals("52998224725", moved.getString("duplicateCpf"));
+        }
+    }
+}
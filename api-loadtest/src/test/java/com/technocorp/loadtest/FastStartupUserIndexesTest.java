@@ -0,0 +1,11 @@
+package com.technocorp.loadtest;
+
+import com.technocorp.ApiApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// The same checks with lazy initialization on, which leaves every bean nothing asks for uncreated.
+@SpringBootTest(classes = ApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.data.mongodb.port=0", "spring.mongodb.embedded.version=4.0.2",
+                "spring.profiles.active=fast-startup"})
+class FastStartupUserIndexesTest extends UserIndexesTest {
+}
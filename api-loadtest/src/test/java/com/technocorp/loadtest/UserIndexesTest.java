@@ -0,0 +1,51 @@
+package com.technocorp.loadtest;
+
+import com.technocorp.ApiApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A new embedded Mongo with no indexes at all, like a database nobody seeded: whatever holds here was built on startup.
+// The first run downloads the MongoDB binaries into ~/.embedmongo, like the load test.
+@SpringBootTest(classes = ApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.data.mongodb.port=0", "spring.mongodb.embedded.version=4.0.2"})
+class UserIndexesTest {
+
+    private static final String USER = "{\"name\":\"Andrews\",\"surname\":\"Souza\",\"age\":30,"
+            + "\"cpf\":\"%s\",\"login\":\"andrews\",\"password\":\"123\"}";
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void whenTheCpfIsAlreadyTakenShouldReturnConflict() throws Exception {
+        assertEquals(201, post(String.format(USER, "529.982.247-25")).statusCode());
+        var repeated = post(String.format(USER, "52998224725"));
+        assertEquals(409, repeated.statusCode(), repeated.body());
+    }
+
+    @Test
+    void whenFilteringByAgeShouldFindTheIndexItsQueryIsHintedTo() throws Exception {
+        assertEquals(201, post(String.format(USER, "111.444.777-35")).statusCode());
+        var segment = client.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/users?minAge=20&maxAge=40&admin=false&count=true")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, segment.statusCode(), segment.body());
+    }
+
+    private HttpResponse<String> post(String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -12,13 +14,19 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 @Builder
 @Document("users")
+@CompoundIndex(name = "searchName_id", def = "{'searchName': 1, '_id': 1}")
+// Equality on admin, then the _id pages are sorted by, then the age range, which is checked on the index keys.
+@CompoundIndex(name = "admin_id_age", def = "{'admin': 1, '_id': 1, 'age': 1}")
 public class User {
 
     @Id
     private String id;
     private String name;
+    private String searchName;
     private String surname;
-    private String age;
+    private Integer age;
+    // Digits only, users without a CPF are left out of the index.
+    @Indexed(name = "cpf", unique = true, sparse = true)
     private String cpf;
     private String login;
     private String password;
@@ -0,0 +1,23 @@
+package com.technocorp.repository;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Counts of a {@link UserRepositoryCustom#bulkWrite} call. Mongo reports matches and modifications only
+ * for the whole write; upserts and failures are reported by position of the operation.
+ */
+@Value
+@Builder
+public class UserBulkWriteResult {
+
+    int insertedCount;
+    int matchedCount;
+    int modifiedCount;
+    int deletedCount;
+    Map<Integer, String> upsertedIds;
+    Map<Integer, String> failures;
+
+}
@@ -1,14 +1,46 @@
 package com.technocorp.repository;
 
 import com.technocorp.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends MongoRepository<User,String> {
+public interface UserRepository extends MongoRepository<User,String>, UserRepositoryCustom {
 
-    List<User> findByNameIgnoreCaseContaining(String name);
+    /**
+     * The fields a user is returned with, reads leave login and password in the database.
+     */
+    String RESPONSE_FIELDS = "{'name': 1, 'surname': 1, 'age': 1, 'cpf': 1, 'admin': 1}";
+
+    @Query(fields = RESPONSE_FIELDS)
+    List<User> findAllBy(Pageable pageable);
+
+    @Query(fields = RESPONSE_FIELDS)
+    List<User> findByIdGreaterThan(String id, Pageable pageable);
+
+    @Query(fields = RESPONSE_FIELDS)
+    List<User> findBySearchNameStartingWith(String searchName, Pageable pageable);
+
+    @Query(fields = RESPONSE_FIELDS)
+    List<User> findBySearchNameStartingWithAndIdGreaterThan(String searchName, String id, Pageable pageable);
+
+    long countBySearchNameStartingWith(String searchName);
+
+    /**
+     * A single probe of the unique cpf index, the cpf must already be normalized.
+     */
+    @Query(fields = RESPONSE_FIELDS)
+    Optional<User> findByCpf(String cpf);
+
+    @Meta(cursorBatchSize = 1000)
+    @Query(fields = RESPONSE_FIELDS)
+    Stream<User> streamAllBy();
 
 }
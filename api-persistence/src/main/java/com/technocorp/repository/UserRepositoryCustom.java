@@ -0,0 +1,57 @@
+package com.technocorp.repository;
+
+import com.technocorp.model.User;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts the users with a single bulk write. Users without an id get one before the write, so every user
+     * has one afterwards; the returned map holds the error of each user that was not inserted, by position.
+     */
+    Map<Integer, String> insertAll(List<User> users, boolean ordered);
+
+    /**
+     * Returns the number of users from the collection metadata, without a scan. It can be off after an
+     * unclean shutdown or while a chunk migrates, which is fine for a total shown to clients.
+     */
+    long estimatedCount();
+
+    /**
+     * Returns the page of users with an age in the range and the given admin flag, any bound left null is not
+     * filtered on. It walks the admin_id_age index in id order and only fetches the users that match.
+     */
+    List<User> findBySegment(Integer minAge, Integer maxAge, Boolean admin, String lastId, Pageable pageable);
+
+    /**
+     * Counts the users {@link #findBySegment} would return, on the admin_id_age index alone.
+     */
+    long countBySegment(Integer minAge, Integer maxAge, Boolean admin);
+
+    /**
+     * Runs all the operations as one unordered bulk write.
+     */
+    UserBulkWriteResult bulkWrite(List<UserWriteOperation> operations);
+
+    /**
+     * Replaces the user with the same id in a single findAndModify, returning the stored user,
+     * or empty when no user has that id.
+     */
+    Optional<User> replaceIfExists(User user);
+
+    /**
+     * Deletes the user in a single delete command, returning whether a user was deleted.
+     */
+    boolean removeById(String id);
+
+    /**
+     * Sets the given fields of the user in a single findAndModify, unsetting the ones mapped to null,
+     * and returns the updated user, or empty when no user has that id.
+     */
+    Optional<User> updateFields(String id, Map<String, Object> fields);
+
+}
@@ -0,0 +1,169 @@
+package com.technocorp.repository;
+
+import com.technocorp.model.User;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import lombok.AllArgsConstructor;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@AllArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String SEGMENT_INDEX = "admin_id_age";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<Integer, String> insertAll(List<User> users, boolean ordered) {
+        users.stream()
+                .filter(user -> user.getId() == null)
+                .forEach(user -> user.setId(new ObjectId().toHexString()));
+        try {
+            mongoTemplate.bulkOps(ordered ? BulkMode.ORDERED : BulkMode.UNORDERED, User.class)
+                    .insert(users)
+                    .execute();
+            return Collections.emptyMap();
+        } catch (BulkOperationException e) {
+            var failures = new HashMap<Integer, String>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            if (ordered) {
+                // An ordered write stops at the first error, nothing after it was sent.
+                var firstFailure = Collections.min(failures.keySet());
+                for (int i = firstFailure + 1; i < users.size(); i++) {
+                    failures.putIfAbsent(i, "Not inserted, a previous user of the batch failed");
+                }
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(User.class);
+    }
+
+    @Override
+    public List<User> findBySegment(Integer minAge, Integer maxAge, Boolean admin, String lastId, Pageable pageable) {
+        var criteria = segmentOf(minAge, maxAge, admin);
+        if (lastId != null) {
+            criteria.and("id").gt(lastId);
+        }
+        var query = new BasicQuery(new Query(criteria).getQueryObject(), Document.parse(UserRepository.RESPONSE_FIELDS))
+                .with(pageable)
+                .withHint(SEGMENT_INDEX);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public long countBySegment(Integer minAge, Integer maxAge, Boolean admin) {
+        return mongoTemplate.count(new Query(segmentOf(minAge, maxAge, admin)).withHint(SEGMENT_INDEX), User.class);
+    }
+
+    @Override
+    public UserBulkWriteResult bulkWrite(List<UserWriteOperation> operations) {
+        var bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, User.class);
+        operations.forEach(operation -> add(bulk, operation));
+        try {
+            return toResult(bulk.execute(), Collections.emptyList());
+        } catch (BulkOperationException e) {
+            return toResult(e.getResult(), e.getErrors());
+        }
+    }
+
+    @Override
+    public Optional<User> replaceIfExists(User user) {
+        return Optional.ofNullable(mongoTemplate.findAndReplace(new Query(where("id").is(user.getId())), user,
+                FindAndReplaceOptions.options().returnNew()));
+    }
+
+    @Override
+    public boolean removeById(String id) {
+        return mongoTemplate.remove(new Query(where("id").is(id)), User.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public Optional<User> updateFields(String id, Map<String, Object> fields) {
+        var update = new Update();
+        fields.forEach((field, value) -> {
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        });
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(where("id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    private static void add(BulkOperations bulk, UserWriteOperation operation) {
+        var byId = new Query(where("id").is(operation.getId()));
+        switch (operation.getType()) {
+            case INSERT:
+                bulk.insert(operation.getUser());
+                break;
+            case REPLACE:
+                bulk.replaceOne(byId, operation.getUser());
+                break;
+            case UPSERT:
+                bulk.replaceOne(byId, operation.getUser(), FindAndReplaceOptions.options().upsert());
+                break;
+            case DELETE:
+                bulk.remove(byId);
+                break;
+        }
+    }
+
+    private static UserBulkWriteResult toResult(BulkWriteResult result, List<BulkWriteError> errors) {
+        return UserBulkWriteResult.builder()
+                .insertedCount(result.getInsertedCount())
+                .matchedCount(result.getMatchedCount())
+                .modifiedCount(result.getModifiedCount())
+                .deletedCount(result.getDeletedCount())
+                .upsertedIds(result.getUpserts().stream()
+                        .collect(Collectors.toMap(BulkWriteUpsert::getIndex, upsert -> idOf(upsert.getId()))))
+                .failures(errors.stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage)))
+                .build();
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+    // Without an admin flag both values are asked for, so Mongo merges the two sorted index ranges instead of sorting.
+    private static Criteria segmentOf(Integer minAge, Integer maxAge, Boolean admin) {
+        var criteria = where("admin").in(admin == null ? List.of(false, true) : List.of(admin));
+        if (minAge != null || maxAge != null) {
+            var age = criteria.and("age");
+            if (minAge != null) {
+                age.gte(minAge);
+            }
+            if (maxAge != null) {
+                age.lte(maxAge);
+            }
+        }
+        return criteria;
+    }
+}
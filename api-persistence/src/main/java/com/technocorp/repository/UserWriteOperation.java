@@ -0,0 +1,33 @@
+package com.technocorp.repository;
+
+import com.technocorp.model.User;
+import lombok.Value;
+
+/**
+ * One write of a {@link UserRepositoryCustom#bulkWrite} call.
+ */
+@Value
+public class UserWriteOperation {
+
+    public enum Type { INSERT, REPLACE, UPSERT, DELETE }
+
+    Type type;
+    String id;
+    User user;
+
+    public static UserWriteOperation insert(User user) {
+        return new UserWriteOperation(Type.INSERT, user.getId(), user);
+    }
+
+    public static UserWriteOperation replace(User user) {
+        return new UserWriteOperation(Type.REPLACE, user.getId(), user);
+    }
+
+    public static UserWriteOperation upsert(User user) {
+        return new UserWriteOperation(Type.UPSERT, user.getId(), user);
+    }
+
+    public static UserWriteOperation delete(String id) {
+        return new UserWriteOperation(Type.DELETE, id, null);
+    }
+}
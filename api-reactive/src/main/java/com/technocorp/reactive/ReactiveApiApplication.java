@@ -0,0 +1,19 @@
+package com.technocorp.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+/**
+ * Non-blocking variant of the user API, served by Netty event loops and the reactive Mongo driver.
+ * Shares the model, mapping and error handling of the servlet application.
+ */
+@SpringBootApplication(scanBasePackages = {"com.technocorp.reactive", "com.technocorp.exception"})
+@EntityScan("com.technocorp.model")
+public class ReactiveApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApiApplication.class, args);
+    }
+
+}
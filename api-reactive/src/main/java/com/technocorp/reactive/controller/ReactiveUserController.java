@@ -0,0 +1,88 @@
+package com.technocorp.reactive.controller;
+
+import com.technocorp.reactive.service.ReactiveUserService;
+import com.technocorp.util.Mapper;
+import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseUserDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.*;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/users")
+@CrossOrigin(origins = "http://localhost", exposedHeaders = ReactiveUserController.NEXT_CURSOR_HEADER)
+public class ReactiveUserController {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String DEFAULT_PAGE_SIZE = "100";
+
+    private final ReactiveUserService userService;
+
+    public enum StreamFormat { NDJSON, ARRAY }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<ControllerResponseUserDTO>>> listAllUsers(
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+        return userService.findAll(limit, after).map(ReactiveUserController::toPageResponse);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<Flux<ControllerResponseUserDTO>> streamAllUsers(
+            @RequestParam(defaultValue = "NDJSON") StreamFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format == StreamFormat.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(userService.streamAll().map(Mapper.toControllerResponseUserDTO));
+    }
+
+    @GetMapping("/{name}")
+    public Mono<ResponseEntity<List<ControllerResponseUserDTO>>> findByName(
+            @PathVariable String name,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+        return userService.findByName(name, limit, after).map(ReactiveUserController::toPageResponse);
+    }
+
+    @PostMapping
+    @ResponseStatus(CREATED)
+    public Mono<ControllerResponseUserDTO> save(@RequestBody ControllerRequestUserDTO requestUserDTO) {
+        return userService.save(Mapper.toServiceRequestUserDTO.apply(requestUserDTO))
+                .map(Mapper.toControllerResponseUserDTO);
+    }
+
+    @PutMapping
+    @ResponseStatus(OK)
+    public Mono<ControllerResponseUserDTO> update(@RequestParam String id,
+                                                  @RequestBody ControllerRequestUserDTO requestUserDTO) {
+        return userService.update(id, Mapper.toServiceRequestUserDTO.apply(requestUserDTO))
+                .map(Mapper.toControllerResponseUserDTO);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(NO_CONTENT)
+    public Mono<Void> deleteById(@PathVariable String id) {
+        return userService.deleteById(id);
+    }
+
+    private static ResponseEntity<List<ControllerResponseUserDTO>> toPageResponse(ServiceResponsePageDTO page) {
+        var response = ResponseEntity.ok();
+        // With an ETag set, Spring answers a matching If-None-Match with 304 and never serializes the body.
+        if (page.getEtag() != null) {
+            response.eTag(page.getEtag());
+        }
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(Mapper.toControllerResponseUserDTOs(page.getUsers()));
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.technocorp.reactive.repository;
+
+import com.technocorp.model.User;
+import com.technocorp.repository.UserRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    @Query(fields = UserRepository.RESPONSE_FIELDS)
+    Flux<User> findAllBy(Pageable pageable);
+
+    @Query(fields = UserRepository.RESPONSE_FIELDS)
+    Flux<User> findByIdGreaterThan(String id, Pageable pageable);
+
+    @Query(fields = UserRepository.RESPONSE_FIELDS)
+    Flux<User> findBySearchNameStartingWith(String searchName, Pageable pageable);
+
+    @Query(fields = UserRepository.RESPONSE_FIELDS)
+    Flux<User> findBySearchNameStartingWithAndIdGreaterThan(String searchName, String id, Pageable pageable);
+
+    @Meta(cursorBatchSize = 1000)
+    @Query(fields = UserRepository.RESPONSE_FIELDS)
+    Flux<User> streamAllBy();
+
+}
@@ -0,0 +1,59 @@
+package com.technocorp.reactive.service;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.model.User;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Hashes passwords with bcrypt like the PasswordHasher of the servlet application, with the same users.password
+ * settings, so users written by either application are stored the same way. The hashes run on a bounded scheduler
+ * of their own, one thread per core by default, never on the event loop. Once {@code queue-capacity} hashes are
+ * waiting, writes are refused with a 503 right away.
+ */
+@Component
+public class ReactivePasswordHasher implements DisposableBean {
+
+    private final BCryptPasswordEncoder encoder;
+    private final Scheduler scheduler;
+    private final Duration retryAfter;
+
+    public ReactivePasswordHasher(@Value("${users.password.strength:10}") int strength,
+                                  @Value("${users.password.threads:0}") int threads,
+                                  @Value("${users.password.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${users.password.retry-after:1s}") Duration retryAfter) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.scheduler = Schedulers.newBoundedElastic(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity, "users-password", 60, true);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * The user with its password replaced by the bcrypt hash, a user without a password is left as it is.
+     */
+    public Mono<User> hashPassword(User user) {
+        if (user.getPassword() == null) {
+            return Mono.just(user);
+        }
+        return Mono.fromCallable(() -> {
+            user.setPassword(encoder.encode(user.getPassword()));
+            return user;
+        })
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e ->
+                        new OverloadedException("Too many passwords waiting to be hashed, try again later", retryAfter));
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,78 @@
+package com.technocorp.reactive.service;
+
+import com.technocorp.reactive.repository.ReactiveUserRepository;
+import com.technocorp.util.Cursor;
+import com.technocorp.util.Mapper;
+import com.technocorp.util.Pages;
+import com.technocorp.util.SearchKey;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@Service
+@AllArgsConstructor
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactivePasswordHasher passwordHasher;
+
+    public Mono<ServiceResponsePageDTO> findAll(int limit, String after) {
+        return Mono.defer(() -> {
+            var lastId = Cursor.decode(after);
+            var pageable = Pages.pageOf(limit);
+            return (lastId == null
+                    ? userRepository.findAllBy(pageable)
+                    : userRepository.findByIdGreaterThan(lastId, pageable))
+                    .collectList()
+                    .map(users -> Pages.toPage(users, limit));
+        });
+    }
+
+    public Mono<ServiceResponsePageDTO> findByName(String name, int limit, String after) {
+        return Mono.defer(() -> {
+            var searchName = SearchKey.of(name);
+            var lastId = Cursor.decode(after);
+            var pageable = Pages.pageOf(limit);
+            return (lastId == null
+                    ? userRepository.findBySearchNameStartingWith(searchName, pageable)
+                    : userRepository.findBySearchNameStartingWithAndIdGreaterThan(searchName, lastId, pageable))
+                    .collectList()
+                    .map(users -> Pages.toPage(users, limit));
+        });
+    }
+
+    public Flux<ServiceResponseUserDTO> streamAll() {
+        return userRepository.streamAllBy()
+                .map(Mapper.toServiceResponseUserDTO);
+    }
+
+    public Mono<ServiceResponseUserDTO> save(ServiceRequestUserDTO requestDTO) {
+        return Mono.fromSupplier(() -> Mapper.toUserSave.apply(requestDTO))
+                .flatMap(passwordHasher::hashPassword)
+                .flatMap(userRepository::save)
+                .map(Mapper.toServiceResponseUserDTO);
+    }
+
+    public Mono<ServiceResponseUserDTO> update(String id, ServiceRequestUserDTO requestDTO) {
+        return userRepository.existsById(id)
+                .flatMap(exists -> Boolean.TRUE.equals(exists)
+                        ? passwordHasher.hashPassword(Mapper.toUserUpdate.apply(id, requestDTO)).flatMap(userRepository::save)
+                        : Mono.error(new ResponseStatusException(NOT_FOUND, "Id not found")))
+                .map(Mapper.toServiceResponseUserDTO);
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return userRepository.existsById(id)
+                .flatMap(exists -> Boolean.TRUE.equals(exists)
+                        ? userRepository.deleteById(id)
+                        : Mono.error(new ResponseStatusException(NOT_FOUND, "User to delete not found!")));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.technocorp.reactive.controller;
+
+import com.technocorp.exception.RestExceptionHandler;
+import com.technocorp.reactive.service.ReactiveUserService;
+import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserControllerTest {
+
+    private ServiceResponseUserDTO responseUserDTO;
+    private WebTestClient webTestClient;
+
+    @Mock
+    ReactiveUserService userService;
+
+    @BeforeEach
+    void setup() {
+        this.responseUserDTO = ServiceResponseUserDTO.builder()
+                .id("1")
+                .name("Andrews")
+                .surname("Souza")
+                .age(30)
+                .cpf("123")
+                .admin(false)
+                .build();
+        this.webTestClient = WebTestClient
+                .bindToController(new ReactiveUserController(userService))
+                .controllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenIfNoneMatchIsTheEtagOfThePageShouldReturnNotModified() {
+        when(userService.findByName("Andrews", 100, null)).thenReturn(Mono.just(ServiceResponsePageDTO.builder()
+                .users(List.of(this.responseUserDTO))
+                .etag("W/\"5d41402abc4b2a76\"")
+                .build()));
+        webTestClient.get().uri("/users/Andrews")
+                .header("If-None-Match", "W/\"5d41402abc4b2a76\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "W/\"5d41402abc4b2a76\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void whenListAllUsersShouldReturnThePageAndTheCursorHeader() {
+        when(userService.findAll(100, null)).thenReturn(Mono.just(ServiceResponsePageDTO.builder()
+                .users(List.of(this.responseUserDTO))
+                .nextCursor("MQ")
+                .build()));
+        webTestClient.get().uri("/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ReactiveUserController.NEXT_CURSOR_HEADER, "MQ")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("1")
+                .jsonPath("$[0].name").isEqualTo("Andrews");
+    }
+
+    @Test
+    void whenStreamShouldWriteOneUserPerLine() {
+        when(userService.streamAll()).thenReturn(Flux.just(this.responseUserDTO, this.responseUserDTO));
+        webTestClient.get().uri("/users/stream")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(Matchers.containsString("\"name\":\"Andrews\""));
+    }
+
+    @Test
+    void whenSaveShouldReturnCreated() {
+        var request = ControllerRequestUserDTO.builder().name("Andrews").build();
+        when(userService.save(ServiceRequestUserDTO.builder().name("Andrews").build()))
+                .thenReturn(Mono.just(this.responseUserDTO));
+        webTestClient.post().uri("/users")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1");
+    }
+
+    @Test
+    void whenDeleteNotFoundShouldReturnTheStandardError() {
+        when(userService.deleteById("1"))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "User to delete not found!")));
+        webTestClient.delete().uri("/users/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+}
@@ -0,0 +1,53 @@
+package com.technocorp.reactive.service;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactivePasswordHasherTest {
+
+    private ReactivePasswordHasher passwordHasher;
+
+    @AfterEach
+    void stop() {
+        passwordHasher.destroy();
+    }
+
+    @Test
+    void whenHashingShouldStoreABcryptHashOfTheConfiguredStrength() {
+        this.passwordHasher = new ReactivePasswordHasher(4, 1, 10, Duration.ofSeconds(1));
+        StepVerifier.create(passwordHasher.hashPassword(User.builder().password("123").build()))
+                .assertNext(user -> {
+                    assertTrue(user.getPassword().startsWith("$2a$04$"));
+                    assertTrue(BCrypt.checkpw("123", user.getPassword()));
+                })
+                .verifyComplete();
+        StepVerifier.create(passwordHasher.hashPassword(User.builder().build()))
+                .assertNext(user -> assertNull(user.getPassword()))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenTooManyHashesAreWaitingShouldEmitOverloadedWithRetryAfter() {
+        // Slow enough that the first hash still holds the only thread when the third is queued.
+        this.passwordHasher = new ReactivePasswordHasher(12, 1, 1, Duration.ofSeconds(2));
+        var hashes = Flux.range(0, 3)
+                .flatMap(index -> passwordHasher.hashPassword(User.builder().password("123").build()));
+        StepVerifier.create(hashes)
+                .verifyErrorSatisfies(error -> {
+                    assertTrue(error instanceof OverloadedException, error.toString());
+                    assertEquals("2", ((OverloadedException) error).getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                });
+    }
+}
@@ -0,0 +1,166 @@
+package com.technocorp.reactive.service;
+
+import com.technocorp.model.User;
+import com.technocorp.reactive.repository.ReactiveUserRepository;
+import com.technocorp.util.Cursor;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    private ServiceRequestUserDTO requestUserDTO;
+    private User user;
+
+    @Mock
+    ReactiveUserRepository userRepository;
+
+    @Mock
+    ReactivePasswordHasher passwordHasher;
+
+    @InjectMocks
+    ReactiveUserService userService;
+
+    @BeforeEach
+    void setup() {
+        this.user = User.builder()
+                .id("1")
+                .name("Andrews")
+                .searchName("andrews")
+                .surname("Souza")
+                .age(20)
+                .cpf("123")
+                .login("Andrews")
+                .password("123")
+                .admin(false)
+                .build();
+
+        this.requestUserDTO = ServiceRequestUserDTO.builder()
+                .name(this.user.getName())
+                .surname(this.user.getSurname())
+                .age(this.user.getAge())
+                .cpf(this.user.getCpf())
+                .login(this.user.getLogin())
+                .password(this.user.getPassword())
+                .build();
+
+        // Hashing has its own test, here the users go through as they are.
+        lenient().when(passwordHasher.hashPassword(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void whenFindAllHasMoreUsersThanLimitShouldReturnTheNextCursor() {
+        var second = User.builder().id("2").name("Gabrielli").build();
+        when(userRepository.findAllBy(PageRequest.of(0, 2, Sort.by("id")))).thenReturn(Flux.just(this.user, second));
+        StepVerifier.create(userService.findAll(1, null))
+                .assertNext(page -> {
+                    assertEquals(1, page.getUsers().size());
+                    assertEquals(Cursor.encode("1"), page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void whenFindByNameShouldSearchByTheAccentFoldedPrefix() {
+        var lastId = "5fd0e8a2c1a3b2d4e6f80011";
+        when(userRepository.findBySearchNameStartingWithAndIdGreaterThan("andre", lastId, PageRequest.of(0, 11, Sort.by("id"))))
+                .thenReturn(Flux.just(this.user));
+        StepVerifier.create(userService.findByName("Andrê", 10, Cursor.encode(lastId)))
+                .assertNext(page -> assertEquals("Andrews", page.getUsers().get(0).getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenLimitIsOutOfRangeShouldEmitBadRequest() {
+        StepVerifier.create(userService.findAll(0, null))
+                .verifyErrorSatisfies(error ->
+                        assertEquals(HttpStatus.BAD_REQUEST, ((ResponseStatusException) error).getStatus()));
+    }
+
+    @Test
+    void whenStreamAllShouldMapEveryUser() {
+        when(userRepository.streamAllBy()).thenReturn(Flux.just(this.user, this.user));
+        StepVerifier.create(userService.streamAll())
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void whenSaveShouldReturnTheSavedUser() {
+        var stubUser = User.builder()
+                .name(this.user.getName())
+                .searchName(this.user.getSearchName())
+                .surname(this.user.getSurname())
+                .age(this.user.getAge())
+                .cpf(this.user.getCpf())
+                .login(this.user.getLogin())
+                .password(this.user.getPassword())
+                .build();
+        when(userRepository.save(stubUser)).thenReturn(Mono.just(this.user));
+        StepVerifier.create(userService.save(this.requestUserDTO))
+                .assertNext(saved -> assertEquals("1", saved.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenSaveShouldStoreTheHashedPassword() {
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setPassword("hash of " + user.getPassword());
+            return Mono.just(user);
+        }).when(passwordHasher).hashPassword(any());
+        when(userRepository.save(any())).thenReturn(Mono.just(this.user));
+        StepVerifier.create(userService.save(this.requestUserDTO))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(userRepository).save(argThat(saved -> "hash of 123".equals(saved.getPassword())));
+    }
+
+    @Test
+    void whenUpdateShouldReturnTheUpdatedUser() {
+        when(userRepository.existsById("1")).thenReturn(Mono.just(true));
+        when(userRepository.save(this.user)).thenReturn(Mono.just(this.user));
+        StepVerifier.create(userService.update("1", this.requestUserDTO))
+                .assertNext(updated -> assertEquals("Andrews", updated.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenUpdateNotFoundShouldEmitNotFound() {
+        when(userRepository.existsById("1")).thenReturn(Mono.just(false));
+        StepVerifier.create(userService.update("1", this.requestUserDTO))
+                .verifyErrorSatisfies(error ->
+                        assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) error).getStatus()));
+    }
+
+    @Test
+    void whenDeleteByIdShouldDeleteTheUser() {
+        when(userRepository.existsById("1")).thenReturn(Mono.just(true));
+        when(userRepository.deleteById("1")).thenReturn(Mono.empty());
+        StepVerifier.create(userService.deleteById("1")).verifyComplete();
+        verify(userRepository, times(1)).deleteById("1");
+    }
+
+    @Test
+    void whenDeleteByIdNotFoundShouldEmitNotFound() {
+        when(userRepository.existsById("1")).thenReturn(Mono.just(false));
+        StepVerifier.create(userService.deleteById("1"))
+                .verifyErrorSatisfies(error ->
+                        assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) error).getStatus()));
+    }
+}
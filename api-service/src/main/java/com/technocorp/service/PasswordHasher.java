@@ -0,0 +1,111 @@
+package com.technocorp.service;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Hashes passwords with bcrypt on a pool of its own, one thread per core by default, so the hashes of a burst of
+ * writes queue up there instead of taking the CPU from the request threads serving reads. The request thread only
+ * waits on its hash. Once {@code queue-capacity} hashes are waiting, writes are refused with a 503 right away.
+ * The pool is served as executor.* metrics with the tag name=users.password.
+ */
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    public static final String EXECUTOR = "users.password";
+    public static final String REJECTED = "users.password.rejected";
+
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final Duration retryAfter;
+    private final Counter rejected;
+
+    public PasswordHasher(UserProperties properties) {
+        var settings = properties.getPassword();
+        this.encoder = new BCryptPasswordEncoder(settings.getStrength());
+        var threads = settings.getThreads() > 0 ? settings.getThreads() : Runtime.getRuntime().availableProcessors();
+        var threadFactory = new CustomizableThreadFactory("users-password-");
+        threadFactory.setDaemon(true);
+        var pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()), threadFactory);
+        this.retryAfter = properties.getLimiter().getRetryAfter();
+        // Served through the global registry, which Spring Boot adds its registry to.
+        this.executor = ExecutorServiceMetrics.monitor(Metrics.globalRegistry, pool, EXECUTOR);
+        this.rejected = Metrics.counter(REJECTED);
+    }
+
+    /**
+     * The bcrypt hash of the password, null stays null.
+     */
+    public String hash(String password) {
+        return password == null ? null : await(submit(password));
+    }
+
+    /**
+     * Replaces the password of every user with its hash. All of them are queued before waiting on the first,
+     * so a batch is hashed by the whole pool, and none is hashed if they don't all fit in the queue.
+     */
+    public void hashPasswords(List<User> users) {
+        var hashes = new ArrayList<Future<String>>(users.size());
+        try {
+            for (var user : users) {
+                hashes.add(user.getPassword() == null ? null : submit(user.getPassword()));
+            }
+        } catch (OverloadedException e) {
+            hashes.stream().filter(Objects::nonNull).forEach(hash -> hash.cancel(false));
+            throw e;
+        }
+        for (int index = 0; index < users.size(); index++) {
+            if (hashes.get(index) != null) {
+                users.get(index).setPassword(await(hashes.get(index)));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private Future<String> submit(String password) {
+        try {
+            return executor.submit(() -> encoder.encode(password));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new OverloadedException("Too many passwords waiting to be hashed, try again later", retryAfter);
+        }
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Interrupted while hashing the password");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not hash the password", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.technocorp.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.technocorp.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link UserQueryCache} of this node in line with writes made by any node, on with
+ * {@code users.cache.change-stream.enabled=true}. It watches the users collection and evicts by id and search key,
+ * like a local write does. The resume token is saved per node, so a restarted node carries on where it stopped,
+ * and a broken stream resumes without missing events. Change streams need a replica set, a single node one is enough.
+ */
+@Slf4j
+@Component
+public class UserCacheChangeListener implements SmartLifecycle {
+
+    static final String TOKENS = "userCacheResumeTokens";
+
+    // Mongo answers this when the resume token fell off the oplog.
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long RETRY_MILLIS = 1000;
+
+    // Only the fields the eviction needs travel from the database.
+    private static final List<BsonDocument> PIPELINE = List.of(Aggregates.project(Projections.include(
+            "operationType", "documentKey", "fullDocument.searchName")).toBsonDocument(BsonDocument.class, null));
+
+    private final MongoTemplate mongoTemplate;
+    private final UserQueryCache userQueryCache;
+    private final UserProperties.ChangeStream properties;
+    private volatile boolean running;
+    private Thread listener;
+    private BsonDocument resumeToken;
+    private long tokenSavedAt;
+
+    public UserCacheChangeListener(MongoTemplate mongoTemplate, UserQueryCache userQueryCache, UserProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.userQueryCache = userQueryCache;
+        this.properties = properties.getCache().getChangeStream();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listenUntilStopped, "users-cache-change-stream");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listener = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Evicts what the change touched, the same way a local write does. Changes that don't say which pages they
+     * touched, like a dropped collection, evict everything.
+     */
+    void apply(BsonDocument event) {
+        var operation = event.getString("operationType").getValue();
+        switch (operation) {
+            case "insert":
+            case "update":
+            case "replace":
+                var id = idOf(event.getDocument("documentKey").get("_id"));
+                var user = event.get("fullDocument");
+                if (user == null || !user.isDocument()) {
+                    // Deleted before the lookup, or its search key is unknown: it may be in any page.
+                    userQueryCache.evictAll();
+                } else {
+                    var searchName = user.asDocument().getString("searchName", null);
+                    userQueryCache.evict(id, searchName == null ? null : searchName.getValue());
+                }
+                break;
+            case "delete":
+                userQueryCache.evict(idOf(event.getDocument("documentKey").get("_id")), null);
+                break;
+            default:
+                // drop, rename, dropDatabase and invalidate.
+                userQueryCache.evictAll();
+        }
+        resumeToken = event.getDocument("_id");
+    }
+
+    // Anything failing, the token lookup included, is retried: a listener that died would leave this node's cache
+    // stale for good without anyone noticing.
+    private void listenUntilStopped() {
+        var tokenLoaded = false;
+        while (running) {
+            try {
+                if (!tokenLoaded) {
+                    resumeToken = loadToken();
+                    tokenLoaded = true;
+                }
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("Cache change stream can not resume, events were missed so the whole cache is evicted");
+                    resumeToken = null;
+                    userQueryCache.evictAll();
+                } else {
+                    retryLater(e);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+        saveToken();
+    }
+
+    private void watch() {
+        var stream = users().watch(PIPELINE)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(properties.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream.startAfter(resumeToken);
+        }
+        try (var cursor = stream.withDocumentClass(BsonDocument.class).cursor()) {
+            log.info("Cache change stream opened{}", resumeToken == null ? "" : ", resumed from the saved token");
+            while (running) {
+                var event = cursor.tryNext();
+                if (event != null) {
+                    apply(event);
+                }
+                if (System.currentTimeMillis() - tokenSavedAt >= properties.getTokenSaveInterval().toMillis()) {
+                    saveToken();
+                }
+            }
+        }
+    }
+
+    // Until the stream is back, changes made on other nodes can't be seen, so nothing cached can be trusted.
+    private void retryLater(RuntimeException e) {
+        log.warn("Cache change stream failed, evicting the cache and retrying in {} ms", RETRY_MILLIS, e);
+        userQueryCache.evictAll();
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private BsonDocument loadToken() {
+        var saved = tokens().find(Filters.eq("_id", properties.getNodeId())).first();
+        return saved == null ? null : saved.getDocument("token", null);
+    }
+
+    private void saveToken() {
+        tokenSavedAt = System.currentTimeMillis();
+        if (resumeToken == null) {
+            return;
+        }
+        try {
+            tokens().replaceOne(Filters.eq("_id", properties.getNodeId()),
+                    new BsonDocument("_id", new BsonString(properties.getNodeId())).append("token", resumeToken),
+                    new ReplaceOptions().upsert(true));
+        } catch (MongoException e) {
+            log.warn("Could not save the cache change stream resume token", e);
+        }
+    }
+
+    private MongoCollection<BsonDocument> users() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class)).withDocumentClass(BsonDocument.class);
+    }
+
+    private MongoCollection<BsonDocument> tokens() {
+        return mongoTemplate.getCollection(TOKENS).withDocumentClass(BsonDocument.class);
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
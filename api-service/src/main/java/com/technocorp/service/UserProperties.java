@@ -0,0 +1,83 @@
+package com.technocorp.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users")
+public class UserProperties {
+
+    private final Cache cache = new Cache();
+    private final Batch batch = new Batch();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final Limiter limiter = new Limiter();
+    private final Password password = new Password();
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+        private final ChangeStream changeStream = new ChangeStream();
+    }
+
+    @Data
+    public static class ChangeStream {
+        private boolean enabled = false;
+        private String nodeId = hostName();
+        private Duration maxAwaitTime = Duration.ofSeconds(1);
+        private Duration tokenSaveInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Batch {
+        private int maxSize = 1000;
+    }
+
+    @Data
+    public static class WriteBehind {
+        private boolean enabled = false;
+        private int queueCapacity = 10_000;
+        private int flushSize = 500;
+        private Duration flushInterval = Duration.ofMillis(50);
+        private Duration drainTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Limiter {
+        private boolean enabled = true;
+        private double backoffRatio = 0.9;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private final Group reads = new Group(50, 4, 200, Duration.ofMillis(250));
+        private final Group writes = new Group(20, 2, 100, Duration.ofMillis(500));
+    }
+
+    @Data
+    public static class Password {
+        private int strength = 10;
+        private int threads = 0;
+        private int queueCapacity = 1000;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Group {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private Duration latencyThreshold;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.technocorp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of list and search pages, keyed by search key, limit and the id the page starts after.
+ * Writes evict only the pages the written user is in or would fall into. These are found through two indexes
+ * kept next to the cache, so a write doesn't walk the cached pages: the pages each user is in, and the pages of
+ * each search key. A written user can only fall into the pages of the prefixes of its own search key.
+ */
+@Component
+public class UserQueryCache implements MeterBinder {
+
+    // The list pages, which every user falls into, are indexed under the empty search key.
+    private static final String ALL = "";
+
+    private final boolean enabled;
+    private final Cache<Key, ServiceResponsePageDTO> pages;
+    private final Map<String, Set<Key>> pagesByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<Key>> pagesBySearch = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    public UserQueryCache(UserProperties properties) {
+        this.enabled = properties.getCache().isEnabled();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfterWrite(properties.getCache().getExpireAfterWrite())
+                // Run on the thread that removed the page, so the indexes never point past the cache for long.
+                .executor(Runnable::run)
+                .removalListener((Key key, ServiceResponsePageDTO page, RemovalCause cause) -> unindex(key, page))
+                .recordStats()
+                .build();
+    }
+
+    public ServiceResponsePageDTO get(String searchName, int limit, String afterId,
+                                      Supplier<ServiceResponsePageDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        var key = new Key(searchName, limit, afterId);
+        var cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        var version = writes.get();
+        var page = loader.get();
+        if (pages.asMap().putIfAbsent(key, page) == null) {
+            index(key, page);
+            // A write that evicted while the page was loading or before it was indexed may have missed it,
+            // and the page may have been read before that write.
+            if (writes.get() != version) {
+                pages.invalidate(key);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Evicts the pages that hold the user, plus those whose query and id range the user matches now.
+     * A null search name means the user is gone, so only the pages holding it are affected.
+     */
+    public void evict(String id, String searchName) {
+        writes.incrementAndGet();
+        if (id == null) {
+            return;
+        }
+        var stale = new HashSet<>(pagesByUser.getOrDefault(id, Set.of()));
+        if (searchName != null) {
+            for (int length = 0; length <= searchName.length(); length++) {
+                for (var key : pagesBySearch.getOrDefault(searchName.substring(0, length), Set.of())) {
+                    if (covers(key, id)) {
+                        stale.add(key);
+                    }
+                }
+            }
+        }
+        pages.invalidateAll(stale);
+    }
+
+    public void evictAll() {
+        writes.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return pages.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, "users.pages");
+    }
+
+    private void index(Key key, ServiceResponsePageDTO page) {
+        for (var user : page.getUsers()) {
+            add(pagesByUser, user.getId(), key);
+        }
+        add(pagesBySearch, searchOf(key), key);
+    }
+
+    private void unindex(Key key, ServiceResponsePageDTO page) {
+        if (key == null || page == null) {
+            return;
+        }
+        for (var user : page.getUsers()) {
+            remove(pagesByUser, user.getId(), key);
+        }
+        remove(pagesBySearch, searchOf(key), key);
+    }
+
+    // Both run on the bin of the map entry, so a set is never dropped while a key is being added to it.
+    private static void add(Map<String, Set<Key>> index, String name, Key key) {
+        index.compute(name, (ignored, keys) -> {
+            var target = keys == null ? ConcurrentHashMap.<Key>newKeySet() : keys;
+            target.add(key);
+            return target;
+        });
+    }
+
+    private static void remove(Map<String, Set<Key>> index, String name, Key key) {
+        index.computeIfPresent(name, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static String searchOf(Key key) {
+        return key.getSearchName() == null ? ALL : key.getSearchName();
+    }
+
+    // Read through the map view, which leaves the hit and miss counts alone.
+    private boolean covers(Key key, String id) {
+        var page = pages.asMap().get(key);
+        if (page == null || (key.getAfterId() != null && id.compareTo(key.getAfterId()) <= 0)) {
+            return false;
+        }
+        var users = page.getUsers();
+        return page.getNextCursor() == null || users.isEmpty() || lastIdOf(users).compareTo(id) >= 0;
+    }
+
+    private static String lastIdOf(List<ServiceResponseUserDTO> users) {
+        return users.get(users.size() - 1).getId();
+    }
+
+    @Value
+    private static class Key {
+        String searchName;
+        int limit;
+        String afterId;
+    }
+}
@@ -1,16 +1,33 @@
 package com.technocorp.service;
 
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponseBulkWriteDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface UserService {
 
-    List<ServiceResponseUserDTO> findAll();
-    List<ServiceResponseUserDTO> findByName(String name);
+    ServiceResponsePageDTO findAll(int limit, String after);
+    ServiceResponsePageDTO findByName(String name, int limit, String after);
+    ServiceResponsePageDTO findBySegment(Integer minAge, Integer maxAge, Boolean admin, int limit, String after);
+    ServiceResponseUserDTO findByCpf(String cpf);
+    long count();
+    long countByName(String name);
+    long countBySegment(Integer minAge, Integer maxAge, Boolean admin);
+    Stream<ServiceResponseUserDTO> streamAll();
     ServiceResponseUserDTO save(ServiceRequestUserDTO requestDTO);
+    boolean writesBehind();
+    ServiceResponseUserDTO enqueue(ServiceRequestUserDTO requestDTO);
+    List<ServiceResponseBatchItemDTO> saveAll(List<ServiceRequestUserDTO> requestDTOs, boolean ordered);
+    ServiceResponseBulkWriteDTO bulkWrite(List<ServiceRequestOperationDTO> operations);
     ServiceResponseUserDTO update(String id,ServiceRequestUserDTO requestDTO);
+    ServiceResponseUserDTO patch(String id, Map<String, Object> fields);
     void deleteById(String id);
 
 }
@@ -1,16 +1,39 @@
 package com.technocorp.service;
 
+import com.technocorp.repository.UserBulkWriteResult;
 import com.technocorp.repository.UserRepository;
+import com.technocorp.repository.UserWriteOperation;
+import com.technocorp.util.Cpf;
+import com.technocorp.util.Cursor;
+import com.technocorp.util.Pages;
+import com.technocorp.util.SearchKey;
+import com.technocorp.util.dto.OperationStatus;
+import com.technocorp.util.dto.OperationType;
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponseBulkWriteDTO;
+import com.technocorp.util.dto.ServiceResponseOperationDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
 import com.technocorp.util.Mapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.springframework.http.HttpStatus.*;
 
@@ -18,47 +41,336 @@ import static org.springframework.http.HttpStatus.*;
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    public static final String TIMER = "users.service";
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "surname", "age", "cpf", "login", "password");
+
     private final UserRepository userRepository;
+    private final UserQueryCache userQueryCache;
+    private final UserProperties userProperties;
+    private final UserWriteBehind userWriteBehind;
+    private final PasswordHasher passwordHasher;
+
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponsePageDTO findAll(int limit, String after) {
+        var lastId = Cursor.decode(after);
+        return userQueryCache.get(null, limit, lastId, () -> {
+            var pageable = Pages.pageOf(limit);
+            return Pages.toPage(lastId == null
+                    ? userRepository.findAllBy(pageable)
+                    : userRepository.findByIdGreaterThan(lastId, pageable), limit);
+        });
+    }
+
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponsePageDTO findByName(String name, int limit, String after) {
+        var searchName = SearchKey.of(name);
+        var lastId = Cursor.decode(after);
+        return userQueryCache.get(searchName, limit, lastId, () -> {
+            var pageable = Pages.pageOf(limit);
+            return Pages.toPage(lastId == null
+                    ? userRepository.findBySearchNameStartingWith(searchName, pageable)
+                    : userRepository.findBySearchNameStartingWithAndIdGreaterThan(searchName, lastId, pageable), limit);
+        });
+    }
+
+    /**
+     * Pages through the users in the age range with the admin flag, null leaves that part unfiltered.
+     * Not cached, writes can't tell which segments they touch.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponsePageDTO findBySegment(Integer minAge, Integer maxAge, Boolean admin, int limit, String after) {
+        checkAgeRange(minAge, maxAge);
+        return Pages.toPage(userRepository.findBySegment(minAge, maxAge, admin, Cursor.decode(after),
+                Pages.pageOf(limit)), limit);
+    }
 
-    public List<ServiceResponseUserDTO> findAll() {
-        return Optional.ofNullable(
-                userRepository.findAll().stream()
-                        .map(Mapper.toServiceResponseUserDTO)
-                        .collect(Collectors.toList()))
-                .orElseThrow(() -> new ResponseStatusException(NO_CONTENT, "Sorry the database is empty!"));
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponseUserDTO findByCpf(String cpf) {
+        return userRepository.findByCpf(Cpf.normalize(cpf))
+                .map(Mapper.toServiceResponseUserDTO)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "CPF not found"));
     }
 
-    public List<ServiceResponseUserDTO> findByName(String name) {
-        return Optional.ofNullable(
-                userRepository.findByNameIgnoreCaseContaining(name).stream()
-                        .map(Mapper.toServiceResponseUserDTO)
-                        .collect(Collectors.toList()))
-                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "User not found!"));
+    /**
+     * Read from the collection metadata, without touching any document or index.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public long count() {
+        return userRepository.estimatedCount();
     }
 
+    /**
+     * Counted on the searchName index, without fetching or mapping the users.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public long countByName(String name) {
+        return userRepository.countBySearchNameStartingWith(SearchKey.of(name));
+    }
+
+    @Timed(value = TIMER, histogram = true)
+    public long countBySegment(Integer minAge, Integer maxAge, Boolean admin) {
+        checkAgeRange(minAge, maxAge);
+        return userRepository.countBySegment(minAge, maxAge, admin);
+    }
+
+    /**
+     * Lazily maps users as they come off the Mongo cursor, the caller must close the stream.
+     * Its timer only covers opening the cursor, the export as a whole shows up in http.server.requests.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public Stream<ServiceResponseUserDTO> streamAll() {
+        return userRepository.streamAllBy()
+                .map(Mapper.toServiceResponseUserDTO);
+    }
+
+    @Timed(value = TIMER, histogram = true)
     public ServiceResponseUserDTO save(ServiceRequestUserDTO requestDTO) {
-        return Optional.ofNullable(
-                Mapper.toServiceResponseUserDTO.apply(
-                        userRepository.save(Mapper.toUserSave.apply(requestDTO))))
+        var user = Mapper.toUserSave.apply(requestDTO);
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        var saved = Optional.ofNullable(userRepository.save(user))
                 .orElseThrow(() -> new ResponseStatusException(SERVICE_UNAVAILABLE, "Unreachable server!"));
+        userQueryCache.evict(saved.getId(), saved.getSearchName());
+        return Mapper.toServiceResponseUserDTO.apply(saved);
     }
 
-    public ServiceResponseUserDTO update(String id, ServiceRequestUserDTO requestDTO) {
-        if (!userRepository.existsById(id)) {
-            throw new ResponseStatusException(NOT_FOUND, "Id not found");
+    /**
+     * Whether new users are queued by {@link #enqueue} instead of saved right away.
+     */
+    public boolean writesBehind() {
+        return userWriteBehind.isEnabled();
+    }
+
+    /**
+     * Queues the user for the next bulk insert and returns it with its id, it shows up in reads once flushed.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponseUserDTO enqueue(ServiceRequestUserDTO requestDTO) {
+        return Mapper.toServiceResponseUserDTO.apply(userWriteBehind.enqueue(requestDTO));
+    }
+
+    @Timed(value = TIMER, histogram = true)
+    public List<ServiceResponseBatchItemDTO> saveAll(List<ServiceRequestUserDTO> requestDTOs, boolean ordered) {
+        checkBatchSize(requestDTOs);
+        var users = requestDTOs.stream()
+                .map(Mapper.toUserSave)
+                .collect(Collectors.toList());
+        passwordHasher.hashPasswords(users);
+        var failures = userRepository.insertAll(users, ordered);
+        // One pass per user over the cache would cost more than reloading the pages.
+        userQueryCache.evictAll();
+        return IntStream.range(0, users.size())
+                .mapToObj(index -> failures.containsKey(index)
+                        ? ServiceResponseBatchItemDTO.builder().index(index).error(failures.get(index)).build()
+                        : ServiceResponseBatchItemDTO.builder().index(index).id(users.get(index).getId()).build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs all the writes in one bulk write and reads the outcome of each from its result alone, so nothing is
+     * read before the write and no write in between can make the outcome wrong. Mongo reports upserts and errors
+     * per write but matches and deletes only as counts: when every update, or every delete, of the request matched
+     * a user or none did, the counts say which; when only some did, those writes are reported as UNKNOWN.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponseBulkWriteDTO bulkWrite(List<ServiceRequestOperationDTO> operations) {
+        checkBatchSize(operations);
+        var outcomes = new ServiceResponseOperationDTO[operations.size()];
+        var writes = new ArrayList<UserWriteOperation>();
+        var positions = new ArrayList<Integer>();
+        for (int index = 0; index < operations.size(); index++) {
+            var operation = operations.get(index);
+            var error = validate(operation);
+            if (error != null) {
+                outcomes[index] = outcomeOf(index, operation, operation.getId(), OperationStatus.FAILED, error);
+            } else {
+                writes.add(toWrite(operation));
+                positions.add(index);
+            }
         }
-        return Optional.ofNullable(
-                Mapper.toServiceResponseUserDTO.apply(
-                        userRepository.save(
-                                Mapper.toUserUpdate.apply(id, requestDTO))))
-                .orElseThrow(() -> new ResponseStatusException(SERVICE_UNAVAILABLE, "Unreachable server!"));
+        if (writes.isEmpty()) {
+            return ServiceResponseBulkWriteDTO.builder().operations(List.of(outcomes)).build();
+        }
+        passwordHasher.hashPasswords(writes.stream()
+                .map(UserWriteOperation::getUser)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        var result = userRepository.bulkWrite(writes);
+        userQueryCache.evictAll();
+        var statuses = statusesOf(writes, result);
+        for (int sent = 0; sent < writes.size(); sent++) {
+            int index = positions.get(sent);
+            var write = writes.get(sent);
+            outcomes[index] = result.getFailures().containsKey(sent)
+                    ? outcomeOf(index, operations.get(index), write.getId(), OperationStatus.FAILED, result.getFailures().get(sent))
+                    : outcomeOf(index, operations.get(index), write.getId(),
+                    result.getUpsertedIds().containsKey(sent) ? OperationStatus.CREATED : statuses.get(write.getType()),
+                    null);
+        }
+        return ServiceResponseBulkWriteDTO.builder()
+                .created(result.getInsertedCount() + result.getUpsertedIds().size())
+                .matched(result.getMatchedCount())
+                .modified(result.getModifiedCount())
+                .deleted(result.getDeletedCount())
+                .operations(List.of(outcomes))
+                .build();
     }
 
+    /**
+     * Replaces the user in one round trip, the 404 comes from the replace matching nothing.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponseUserDTO update(String id, ServiceRequestUserDTO requestDTO) {
+        var user = Mapper.toUserUpdate.apply(id, requestDTO);
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        var updated = userRepository.replaceIfExists(user)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Id not found"));
+        userQueryCache.evict(updated.getId(), updated.getSearchName());
+        return Mapper.toServiceResponseUserDTO.apply(updated);
+    }
+
+    /**
+     * Writes only the given fields with one $set/$unset, a null value removes the field.
+     */
+    @Timed(value = TIMER, histogram = true)
+    public ServiceResponseUserDTO patch(String id, Map<String, Object> fields) {
+        var changes = toChanges(fields);
+        changes.computeIfPresent("password", (field, password) -> passwordHasher.hash((String) password));
+        var updated = userRepository.updateFields(id, changes)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Id not found"));
+        userQueryCache.evict(updated.getId(), updated.getSearchName());
+        return Mapper.toServiceResponseUserDTO.apply(updated);
+    }
+
+    @Timed(value = TIMER, histogram = true)
     public void deleteById(String id) {
-        if (!userRepository.existsById(id)) {
+        if (!userRepository.removeById(id)) {
             throw new ResponseStatusException(NOT_FOUND, "User to delete not found!");
         }
-        userRepository.deleteById(id);
+        userQueryCache.evict(id, null);
+    }
+
+    private void checkBatchSize(List<?> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "You need to provide at least one user to write!");
+        }
+        var maxSize = userProperties.getBatch().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new ResponseStatusException(PAYLOAD_TOO_LARGE, "A batch can have at most " + maxSize + " users");
+        }
+    }
+
+    private static void checkAgeRange(Integer minAge, Integer maxAge) {
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Ages can not be negative");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new ResponseStatusException(BAD_REQUEST, "minAge can not be greater than maxAge");
+        }
+    }
+
+    private static Map<String, Object> toChanges(Map<String, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "You need to provide at least one field to update!");
+        }
+        fields.forEach((field, value) -> {
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                throw new ResponseStatusException(BAD_REQUEST, "The field " + field + " can not be updated");
+            }
+            if (value != null && !"age".equals(field) && !(value instanceof String)) {
+                throw new ResponseStatusException(BAD_REQUEST, "The field " + field + " must be a text");
+            }
+        });
+        var changes = new HashMap<>(fields);
+        if (fields.containsKey("age")) {
+            changes.put("age", ageOf(fields.get("age")));
+        }
+        if (fields.containsKey("name")) {
+            var name = (String) fields.get("name");
+            changes.put("searchName", name == null ? null : SearchKey.of(name));
+        }
+        if (fields.containsKey("cpf")) {
+            changes.put("cpf", Cpf.normalize((String) fields.get("cpf")));
+        }
+        return changes;
+    }
+
+    // Stored as a number so age ranges can use an index, a numeric text is still accepted like in the request body.
+    private static Integer ageOf(Object value) {
+        if (value == null || value instanceof Integer) {
+            return (Integer) value;
+        }
+        try {
+            return Integer.valueOf(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "The field age must be a whole number");
+        }
+    }
+
+    private static String validate(ServiceRequestOperationDTO operation) {
+        if (operation.getType() == null) {
+            return "The type of the operation is required";
+        }
+        if (operation.getType() != OperationType.CREATE && operation.getId() == null) {
+            return "An id is required to " + operation.getType();
+        }
+        if (operation.getType() != OperationType.DELETE && operation.getUser() == null) {
+            return "A user is required to " + operation.getType();
+        }
+        return null;
+    }
+
+    private static UserWriteOperation toWrite(ServiceRequestOperationDTO operation) {
+        switch (operation.getType()) {
+            case CREATE:
+                var user = Mapper.toUserSave.apply(operation.getUser());
+                user.setId(new ObjectId().toHexString());
+                return UserWriteOperation.insert(user);
+            case UPDATE:
+                return UserWriteOperation.replace(Mapper.toUserUpdate.apply(operation.getId(), operation.getUser()));
+            case UPSERT:
+                return UserWriteOperation.upsert(Mapper.toUserUpdate.apply(operation.getId(), operation.getUser()));
+            default:
+                return UserWriteOperation.delete(operation.getId());
+        }
+    }
+
+    // An upsert that did not insert matched a user, so the matches left over are the ones of the replaces.
+    private static Map<UserWriteOperation.Type, OperationStatus> statusesOf(List<UserWriteOperation> writes,
+                                                                           UserBulkWriteResult result) {
+        var applied = new EnumMap<UserWriteOperation.Type, Integer>(UserWriteOperation.Type.class);
+        for (int sent = 0; sent < writes.size(); sent++) {
+            if (!result.getFailures().containsKey(sent)) {
+                applied.merge(writes.get(sent).getType(), 1, Integer::sum);
+            }
+        }
+        var matchedUpserts = applied.getOrDefault(UserWriteOperation.Type.UPSERT, 0) - result.getUpsertedIds().size();
+        var statuses = new EnumMap<UserWriteOperation.Type, OperationStatus>(UserWriteOperation.Type.class);
+        statuses.put(UserWriteOperation.Type.INSERT, OperationStatus.CREATED);
+        statuses.put(UserWriteOperation.Type.UPSERT, OperationStatus.UPDATED);
+        statuses.put(UserWriteOperation.Type.REPLACE, statusOf(result.getMatchedCount() - matchedUpserts,
+                applied.getOrDefault(UserWriteOperation.Type.REPLACE, 0), OperationStatus.UPDATED));
+        statuses.put(UserWriteOperation.Type.DELETE, statusOf(result.getDeletedCount(),
+                applied.getOrDefault(UserWriteOperation.Type.DELETE, 0), OperationStatus.DELETED));
+        return statuses;
+    }
+
+    private static OperationStatus statusOf(int matched, int applied, OperationStatus whenMatched) {
+        if (matched >= applied) {
+            return whenMatched;
+        }
+        return matched <= 0 ? OperationStatus.NOT_FOUND : OperationStatus.UNKNOWN;
+    }
+
+    private static ServiceResponseOperationDTO outcomeOf(int index, ServiceRequestOperationDTO operation, String id,
+                                                         OperationStatus status, String error) {
+        return ServiceResponseOperationDTO.builder()
+                .index(index)
+                .type(operation.getType())
+                .id(id)
+                .status(status)
+                .error(error)
+                .build();
     }
 
 }
@@ -0,0 +1,176 @@
+package com.technocorp.service;
+
+import com.technocorp.model.User;
+import com.technocorp.repository.UserRepository;
+import com.technocorp.util.Mapper;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Write-behind for POST /users, on with {@code users.write-behind.enabled=true}. Users are queued with their id already
+ * assigned and one flusher thread inserts them with a single bulk write once {@code flush-size} users are waiting,
+ * or {@code flush-interval} after the first of them arrived. A full queue answers 429 instead of growing.
+ * It stops after the web server, so every user accepted before shutdown is still written.
+ */
+@Slf4j
+@Component
+public class UserWriteBehind implements SmartLifecycle {
+
+    public static final String QUEUE = "users.write-behind.queue";
+    public static final String FLUSH = "users.write-behind.flush";
+    public static final String FAILED = "users.write-behind.failed";
+
+    // The web server stops in a phase above this one, nothing is queued once the drain starts.
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    // Longest the flusher waits on the queue before checking whether it was stopped.
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final UserRepository userRepository;
+    private final UserQueryCache userQueryCache;
+    private final PasswordHasher passwordHasher;
+    private final UserProperties.WriteBehind properties;
+    private final BlockingQueue<User> queue;
+    private final Timer flushTimer;
+    private final Counter failed;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public UserWriteBehind(UserRepository userRepository, UserQueryCache userQueryCache, PasswordHasher passwordHasher,
+                           UserProperties properties) {
+        this.userRepository = userRepository;
+        this.userQueryCache = userQueryCache;
+        this.passwordHasher = passwordHasher;
+        this.properties = properties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(this.properties.getQueueCapacity());
+        // Served through the global registry, which Spring Boot adds its registry to.
+        Metrics.gauge(QUEUE, queue, Collection::size);
+        this.flushTimer = Timer.builder(FLUSH).publishPercentileHistogram().register(Metrics.globalRegistry);
+        this.failed = Metrics.counter(FAILED);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues the user and returns it with the id it will be saved with.
+     */
+    public User enqueue(ServiceRequestUserDTO requestDTO) {
+        if (!running) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Not accepting users right now, try again later");
+        }
+        var user = Mapper.toUserSave.apply(requestDTO);
+        user.setId(new ObjectId().toHexString());
+        // Hashed before queuing, the flusher only writes.
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        if (!queue.offer(user)) {
+            throw new ResponseStatusException(TOO_MANY_REQUESTS, "Too many users waiting to be saved, try again later");
+        }
+        return user;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushUntilStoppedAndDrained, "users-write-behind");
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        try {
+            flusher.join(properties.getDrainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("Write-behind did not drain in {}, {} users were not saved", properties.getDrainTimeout(), queue.size());
+            flusher.interrupt();
+        }
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void flushUntilStoppedAndDrained() {
+        try {
+            while (running || !queue.isEmpty()) {
+                var first = queue.poll(STOP_CHECK_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                var batch = new ArrayList<User>(properties.getFlushSize());
+                batch.add(first);
+                fill(batch, System.nanoTime() + properties.getFlushInterval().toNanos());
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for the batch to fill up until the deadline, a stopping service flushes what it has right away.
+    private void fill(List<User> batch, long deadline) throws InterruptedException {
+        var flushSize = properties.getFlushSize();
+        while (true) {
+            queue.drainTo(batch, flushSize - batch.size());
+            var wait = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || wait <= 0 || !running) {
+                return;
+            }
+            var next = queue.poll(Math.min(wait, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    // The users were already answered with 202, a user that can't be written is only logged and counted.
+    private void flush(List<User> batch) {
+        var start = System.nanoTime();
+        try {
+            var failures = userRepository.insertAll(batch, false);
+            failures.forEach((index, error) ->
+                    log.warn("Write-behind could not save user {}: {}", batch.get(index).getId(), error));
+            failed.increment(failures.size());
+        } catch (RuntimeException e) {
+            log.error("Write-behind could not save {} users", batch.size(), e);
+            failed.increment(batch.size());
+        }
+        // Every user of the batch, even those that failed: an insert that threw midway may have written some.
+        batch.forEach(user -> userQueryCache.evict(user.getId(), user.getSearchName()));
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
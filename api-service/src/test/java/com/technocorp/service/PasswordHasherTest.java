@@ -0,0 +1,69 @@
+package com.technocorp.service;
+
+import com.technocorp.exception.OverloadedException;
+import com.technocorp.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void stop() {
+        passwordHasher.destroy();
+    }
+
+    @Test
+    void whenHashingShouldReturnABcryptHashOfTheConfiguredStrength() {
+        this.passwordHasher = new PasswordHasher(propertiesOf(1, 10));
+        var hash = passwordHasher.hash("123");
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(BCrypt.checkpw("123", hash));
+        assertNull(passwordHasher.hash(null));
+    }
+
+    @Test
+    void whenHashingABatchShouldReplaceEveryPasswordButTheMissingOnes() {
+        this.passwordHasher = new PasswordHasher(propertiesOf(2, 10));
+        var users = List.of(User.builder().password("123").build(), User.builder().build(),
+                User.builder().password("456").build());
+        passwordHasher.hashPasswords(users);
+        assertTrue(BCrypt.checkpw("123", users.get(0).getPassword()));
+        assertNull(users.get(1).getPassword());
+        assertTrue(BCrypt.checkpw("456", users.get(2).getPassword()));
+    }
+
+    @Test
+    void whenTheBatchDoesNotFitInTheQueueShouldRejectItWithRetryAfterAndHashNone() {
+        var properties = propertiesOf(1, 1);
+        // Slow enough that the first hash still holds the only thread when the third is queued.
+        properties.getPassword().setStrength(12);
+        this.passwordHasher = new PasswordHasher(properties);
+        var users = List.of(User.builder().password("123").build(), User.builder().password("456").build(),
+                User.builder().password("789").build());
+        var thrown = assertThrows(OverloadedException.class, () -> passwordHasher.hashPasswords(users));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, thrown.getStatus());
+        assertEquals("1", thrown.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(List.of("123", "456", "789"),
+                List.of(users.get(0).getPassword(), users.get(1).getPassword(), users.get(2).getPassword()));
+    }
+
+    private static UserProperties propertiesOf(int threads, int queueCapacity) {
+        var properties = new UserProperties();
+        properties.getPassword().setStrength(4);
+        properties.getPassword().setThreads(threads);
+        properties.getPassword().setQueueCapacity(queueCapacity);
+        return properties;
+    }
+}
@@ -0,0 +1,104 @@
+package com.technocorp.service;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import com.technocorp.model.User;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheChangeListenerTest {
+
+    private static final String ID = "{\"_id\": {\"$oid\": \"5fda2d5b1a5e8c3b2c4f1a2b\"}}";
+
+    private UserQueryCache userQueryCache;
+    private UserCacheChangeListener listener;
+
+    @BeforeEach
+    void setup() {
+        this.userQueryCache = mock(UserQueryCache.class);
+        this.listener = new UserCacheChangeListener(mock(MongoTemplate.class), userQueryCache, new UserProperties());
+    }
+
+    @Test
+    void whenAnUserIsUpdatedShouldEvictItsIdAndSearchKey() {
+        listener.apply(event("update", ", \"fullDocument\": {\"searchName\": \"joao\"}"));
+        verify(userQueryCache).evict("5fda2d5b1a5e8c3b2c4f1a2b", "joao");
+        verify(userQueryCache, never()).evictAll();
+    }
+
+    @Test
+    void whenAnUserIsDeletedShouldEvictItsId() {
+        listener.apply(event("delete", ""));
+        verify(userQueryCache).evict("5fda2d5b1a5e8c3b2c4f1a2b", null);
+    }
+
+    @Test
+    void whenTheUpdatedUserIsGoneShouldEvictEverything() {
+        listener.apply(event("update", ", \"fullDocument\": null"));
+        verify(userQueryCache).evictAll();
+        verify(userQueryCache, never()).evict(any(), any());
+    }
+
+    @Test
+    void whenTheCollectionIsDroppedShouldEvictEverything() {
+        listener.apply(BsonDocument.parse("{\"_id\": {\"_data\": \"82\"}, \"operationType\": \"drop\"}"));
+        verify(userQueryCache).evictAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenLoadingTheResumeTokenFailsShouldEvictEverythingAndRetry() {
+        var mongoTemplate = mock(MongoTemplate.class);
+        var tokens = mock(MongoCollection.class);
+        var users = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection(UserCacheChangeListener.TOKENS)).thenReturn(mock(MongoCollection.class));
+        when(mongoTemplate.getCollection(UserCacheChangeListener.TOKENS).withDocumentClass(BsonDocument.class))
+                .thenReturn(tokens);
+        var noToken = mock(FindIterable.class);
+        when(tokens.find(any(Bson.class))).thenThrow(new IllegalStateException("state should be: open"))
+                .thenReturn(noToken);
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        when(mongoTemplate.getCollection("users")).thenReturn(mock(MongoCollection.class));
+        when(mongoTemplate.getCollection("users").withDocumentClass(BsonDocument.class)).thenReturn(users);
+        var stream = mock(ChangeStreamIterable.class, RETURNS_SELF);
+        var events = mock(MongoIterable.class);
+        var cursor = mock(MongoCursor.class);
+        when(users.watch(anyList())).thenReturn(stream);
+        when(stream.withDocumentClass(BsonDocument.class)).thenReturn(events);
+        when(events.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenReturn(event("delete", "")).thenReturn(null);
+        var properties = new UserProperties();
+        properties.getCache().getChangeStream().setEnabled(true);
+        var recovering = new UserCacheChangeListener(mongoTemplate, userQueryCache, properties);
+
+        recovering.start();
+        try {
+            verify(userQueryCache, timeout(5000)).evict("5fda2d5b1a5e8c3b2c4f1a2b", null);
+            verify(userQueryCache).evictAll();
+            verify(tokens, times(2)).find(any(Bson.class));
+        } finally {
+            recovering.stop();
+        }
+    }
+
+    private static BsonDocument event(String operation, String fullDocument) {
+        return BsonDocument.parse("{\"_id\": {\"_data\": \"82\"}, \"operationType\": \"" + operation
+                + "\", \"documentKey\": " + ID + fullDocument + "}");
+    }
+}
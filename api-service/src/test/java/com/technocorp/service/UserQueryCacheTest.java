@@ -0,0 +1,109 @@
+package com.technocorp.service;
+
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserQueryCacheTest {
+
+    private UserQueryCache userQueryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        this.userQueryCache = new UserQueryCache(new UserProperties());
+        this.loads = new AtomicInteger();
+    }
+
+    @Test
+    void whenSamePageIsRequestedTwiceShouldLoadItOnce() {
+        load("jo", 2, null, "a1", "a2");
+        load("jo", 2, null, "a1", "a2");
+        assertEquals(1, loads.get());
+        assertEquals(1, userQueryCache.stats().hitCount());
+    }
+
+    @Test
+    void whenUserInThePageIsWrittenShouldEvictThePage() {
+        load("jo", 2, null, "a1", "a2");
+        userQueryCache.evict("a2", "maria");
+        load("jo", 2, null, "a1", "a2");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenMatchingUserFallsInThePageRangeShouldEvictThePage() {
+        load("jo", 2, "a0", "a1", "a3");
+        userQueryCache.evict("a2", "joao");
+        load("jo", 2, "a0", "a1", "a3");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenUserDoesNotMatchTheSearchShouldKeepThePage() {
+        load("jo", 2, null, "a1", "a2");
+        userQueryCache.evict("a0", "maria");
+        load("jo", 2, null, "a1", "a2");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenUserIsAfterAFullPageShouldKeepThePage() {
+        load(null, 2, null, "a1", "a2");
+        userQueryCache.evict("a9", "maria");
+        load(null, 2, null, "a1", "a2");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenUserIsAfterTheLastPageShouldEvictThePage() {
+        load(null, 5, null, "a1", "a2");
+        userQueryCache.evict("a9", "maria");
+        load(null, 5, null, "a1", "a2");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenUserIsWrittenWhileItsPageLoadsShouldNotCacheThePage() {
+        userQueryCache.get("jo", 2, null, () -> {
+            loads.incrementAndGet();
+            // The write lands after the page was read and before it is cached.
+            userQueryCache.evict("a2", "joao");
+            return ServiceResponsePageDTO.builder()
+                    .users(List.of(ServiceResponseUserDTO.builder().id("a1").build()))
+                    .build();
+        });
+        load("jo", 2, null, "a1", "a2");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenAPageIsEvictedShouldStopTrackingItsUsers() {
+        load("jo", 2, null, "a1", "a2");
+        userQueryCache.evict("a1", null);
+        load("ma", 2, null, "a3");
+        userQueryCache.evict("a1", null);
+        load("ma", 2, null, "a3");
+        assertEquals(2, loads.get());
+    }
+
+    private void load(String searchName, int limit, String afterId, String... ids) {
+        userQueryCache.get(searchName, limit, afterId, () -> {
+            loads.incrementAndGet();
+            var users = List.of(ids).stream()
+                    .map(id -> ServiceResponseUserDTO.builder().id(id).build())
+                    .collect(Collectors.toList());
+            return ServiceResponsePageDTO.builder()
+                    .users(users)
+                    .nextCursor(users.size() == limit ? "next" : null)
+                    .build();
+        });
+    }
+}
@@ -1,8 +1,16 @@
 package com.technocorp.service;
 
 import com.technocorp.model.User;
+import com.technocorp.repository.UserBulkWriteResult;
 import com.technocorp.repository.UserRepository;
+import com.technocorp.util.Cursor;
+import com.technocorp.util.Pages;
+import com.technocorp.util.dto.OperationStatus;
+import com.technocorp.util.dto.OperationType;
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponseOperationDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -10,7 +18,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -19,18 +31,37 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
 
+    private static final String LAST_ID = "5fd0e8a2c1a3b2d4e6f80011";
+
     private ServiceRequestUserDTO requestUserDTO;
     private User user;
 
     @Mock
     UserRepository userRepository;
 
+    @Spy
+    UserQueryCache userQueryCache = new UserQueryCache(new UserProperties());
+
+    @Spy
+    UserProperties userProperties = new UserProperties();
+
+    @Mock
+    PasswordHasher passwordHasher;
+
     @InjectMocks
     UserServiceImpl userServiceImpl;
 
@@ -39,8 +70,9 @@ class UserServiceImplTest {
         this.user = User.builder()
                 .id("1")
                 .name("Andrews")
+                .searchName("andrews")
                 .surname("Souza")
-                .age("20")
+                .age(20)
                 .cpf("123")
                 .login("Andrews")
                 .password("123")
@@ -56,12 +88,14 @@ class UserServiceImplTest {
                 .password(this.user.getPassword())
                 .build();
 
+        // Hashing has tests of its own, here passwords go through unchanged.
+        lenient().when(passwordHasher.hash(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
     void whenFindAllShouldReturnAListOfUsers() {
-        when(userRepository.findAll()).thenReturn(Collections.singletonList(this.user));
-        var stubActual = userServiceImpl.findAll();
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(this.user));
+        var stubActual = userServiceImpl.findAll(10, null).getUsers();
         var stubExpected = Stream.of(this.user)
                 .map(dto -> ServiceResponseUserDTO.builder()
                         .id(dto.getId())
@@ -77,8 +111,9 @@ class UserServiceImplTest {
 
     @Test
     void whenFindByNameShouldReturnAListOfUsersThatMatchTheName() {
-        when(userRepository.findByNameIgnoreCaseContaining(this.user.getName())).thenReturn(Collections.singletonList(this.user));
-        var stubActual = userServiceImpl.findByName(this.user.getName());
+        when(userRepository.findBySearchNameStartingWith(eq("andrews"), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(this.user));
+        var stubActual = userServiceImpl.findByName(this.user.getName(), 10, null).getUsers();
         var stubExpected = Stream.of(this.user)
                 .map(dto -> ServiceResponseUserDTO.builder()
                         .id(dto.getId())
@@ -92,6 +127,172 @@ class UserServiceImplTest {
         assertEquals(stubExpected, stubActual);
     }
 
+    @Test
+    void whenFindAllHasMoreUsersThanLimitShouldReturnTheNextCursor() {
+        var second = User.builder().id("2").name("Gabrielli").build();
+        when(userRepository.findAllBy(PageRequest.of(0, 2, Sort.by("id"))))
+                .thenReturn(List.of(this.user, second));
+        var stubActual = userServiceImpl.findAll(1, null);
+        assertEquals(1, stubActual.getUsers().size());
+        assertEquals(Cursor.encode(this.user.getId()), stubActual.getNextCursor());
+    }
+
+    @Test
+    void whenAUserOfThePageChangesShouldChangeTheEtag() {
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(this.user));
+        var before = userServiceImpl.findAll(10, null).getEtag();
+        assertEquals(before, userServiceImpl.findAll(20, null).getEtag());
+        this.user.setAge(21);
+        var after = userServiceImpl.findAll(30, null).getEtag();
+        assertTrue(before.matches("W/\"[0-9a-f]{32}\""), before);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void whenFindAllWithCursorShouldSeekAfterTheLastId() {
+        when(userRepository.findByIdGreaterThan(LAST_ID, PageRequest.of(0, 11, Sort.by("id"))))
+                .thenReturn(Collections.emptyList());
+        var stubActual = userServiceImpl.findAll(10, Cursor.encode(LAST_ID));
+        assertEquals(Collections.emptyList(), stubActual.getUsers());
+        assertNull(stubActual.getNextCursor());
+    }
+
+    @Test
+    void whenTheCursorIsNotAnIdShouldThrowBadRequest() {
+        var cursor = Cursor.encode("not-an-id");
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findAll(10, cursor));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+        verify(userRepository, never()).findByIdGreaterThan(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void whenFindByNameWithCursorShouldSeekAfterTheLastId() {
+        when(userRepository.findBySearchNameStartingWithAndIdGreaterThan(
+                "andrews", LAST_ID, PageRequest.of(0, 11, Sort.by("id"))))
+                .thenReturn(Collections.singletonList(this.user));
+        var stubActual = userServiceImpl.findByName(this.user.getName(), 10, Cursor.encode(LAST_ID));
+        assertEquals(1, stubActual.getUsers().size());
+    }
+
+    @Test
+    void whenFindByNameShouldSearchByTheAccentFoldedPrefix() {
+        when(userRepository.findBySearchNameStartingWith(eq("jose"), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        userServiceImpl.findByName(" JOSÉ ", 10, null);
+        verify(userRepository, times(1)).findBySearchNameStartingWith(eq("jose"), any(Pageable.class));
+    }
+
+    @Test
+    void whenSaveShouldStoreTheSearchName() {
+        this.requestUserDTO.setName("João");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userServiceImpl.save(this.requestUserDTO);
+        verify(userRepository, times(1)).save(argThat(saved -> "joao".equals(saved.getSearchName())));
+    }
+
+    @Test
+    void whenSaveShouldStoreTheCpfAsDigits() {
+        this.requestUserDTO.setCpf("123.456.789-09");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userServiceImpl.save(this.requestUserDTO);
+        verify(userRepository, times(1)).save(argThat(saved -> "12345678909".equals(saved.getCpf())));
+    }
+
+    @Test
+    void whenFindByCpfShouldLookUpTheDigits() {
+        when(userRepository.findByCpf("12345678909")).thenReturn(Optional.of(this.user));
+        var stubActual = userServiceImpl.findByCpf("123.456.789-09");
+        assertEquals(this.user.getId(), stubActual.getId());
+    }
+
+    @Test
+    void whenFindByCpfNotFoundShouldThrowNotFound() {
+        when(userRepository.findByCpf("12345678909")).thenReturn(Optional.empty());
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findByCpf("12345678909"));
+        assertEquals(HttpStatus.NOT_FOUND, thrown.getStatus());
+    }
+
+    @Test
+    void whenCountShouldUseTheEstimatedCount() {
+        when(userRepository.estimatedCount()).thenReturn(42L);
+        assertEquals(42L, userServiceImpl.count());
+    }
+
+    @Test
+    void whenCountByNameShouldCountTheSearchKeyPrefix() {
+        when(userRepository.countBySearchNameStartingWith("joao")).thenReturn(3L);
+        assertEquals(3L, userServiceImpl.countByName("João"));
+    }
+
+    @Test
+    void whenFindBySegmentShouldPageTheUsersInTheRange() {
+        when(userRepository.findBySegment(eq(30), eq(45), eq(false), isNull(), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(this.user));
+        var stubActual = userServiceImpl.findBySegment(30, 45, false, 10, null);
+        assertEquals(this.user.getId(), stubActual.getUsers().get(0).getId());
+        assertNull(stubActual.getNextCursor());
+    }
+
+    @Test
+    void whenFindBySegmentHasMinAgeAboveMaxAgeShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.findBySegment(45, 30, null, 10, null));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void whenPatchHasANumericTextAgeShouldStoreItAsANumber() {
+        when(userRepository.updateFields("1", Map.of("age", 31))).thenReturn(Optional.of(this.user));
+        userServiceImpl.patch("1", Map.of("age", "31"));
+        verify(userRepository).updateFields("1", Map.of("age", 31));
+    }
+
+    @Test
+    void whenPatchHasAnAgeThatIsNotAWholeNumberShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.patch("1", Map.of("age", "thirty")));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void whenFindByNameIsRepeatedShouldServeItFromTheCache() {
+        when(userRepository.findBySearchNameStartingWith(eq("andrews"), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(this.user));
+        userServiceImpl.findByName("Andrews", 10, null);
+        userServiceImpl.findByName("andrews", 10, null);
+        verify(userRepository, times(1)).findBySearchNameStartingWith(eq("andrews"), any(Pageable.class));
+    }
+
+    @Test
+    void whenDeleteByIdShouldEvictTheCachedPagesOfTheUser() {
+        when(userRepository.removeById(this.user.getId())).thenReturn(true);
+        userServiceImpl.deleteById(this.user.getId());
+        verify(userQueryCache, times(1)).evict(this.user.getId(), null);
+    }
+
+    @Test
+    void whenLimitIsOutOfRangeShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.findAll(Pages.MAX_PAGE_SIZE + 1, null));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void whenCursorIsInvalidShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.findAll(10, "not a cursor!"));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void whenStreamAllShouldMapUsersFromTheCursor() {
+        when(userRepository.streamAllBy()).thenReturn(Stream.of(this.user));
+        try (var stubActual = userServiceImpl.streamAll()) {
+            assertEquals(this.user.getName(), stubActual.findFirst().orElseThrow().getName());
+        }
+    }
+
     @Test
     void whenSaveShouldReturnTheSavedUser() {
         var stubUser = this.user;
@@ -110,10 +311,113 @@ class UserServiceImplTest {
         assertEquals(stubExpected, stubActual);
     }
 
+    @Test
+    void whenSaveShouldStoreTheHashOfThePassword() {
+        when(passwordHasher.hash("123")).thenReturn("$2a$10$hash");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userServiceImpl.save(this.requestUserDTO);
+        verify(userRepository, times(1)).save(argThat(saved -> "$2a$10$hash".equals(saved.getPassword())));
+    }
+
+    @Test
+    void whenSaveAllShouldHashThePasswordsOfTheWholeBatchAtOnce() {
+        when(userRepository.insertAll(anyList(), eq(true))).thenReturn(Collections.emptyMap());
+        userServiceImpl.saveAll(List.of(this.requestUserDTO, this.requestUserDTO), true);
+        verify(passwordHasher, times(1)).hashPasswords(argThat(users -> users.size() == 2));
+    }
+
+    @Test
+    void whenSaveAllShouldReturnTheIdOrErrorOfEachUser() {
+        when(userRepository.insertAll(anyList(), eq(false))).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.get(0).setId("1");
+            return Map.of(1, "duplicate key");
+        });
+        var stubActual = userServiceImpl.saveAll(List.of(this.requestUserDTO, this.requestUserDTO), false);
+        var stubExpected = List.of(
+                ServiceResponseBatchItemDTO.builder().index(0).id("1").build(),
+                ServiceResponseBatchItemDTO.builder().index(1).error("duplicate key").build());
+        assertEquals(stubExpected, stubActual);
+        verify(userQueryCache, times(1)).evictAll();
+    }
+
+    @Test
+    void whenSaveAllIsLargerThanTheMaxSizeShouldThrowPayloadTooLarge() {
+        userProperties.getBatch().setMaxSize(1);
+        var requests = List.of(this.requestUserDTO, this.requestUserDTO);
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.saveAll(requests, true));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, thrown.getStatus());
+        verify(userRepository, never()).insertAll(anyList(), anyBoolean());
+    }
+
+    @Test
+    void whenSaveAllIsEmptyShouldThrowBadRequest() {
+        var requests = Collections.<ServiceRequestUserDTO>emptyList();
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.saveAll(requests, true));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void whenBulkWriteShouldReportTheOutcomeOfEachOperation() {
+        var operations = List.of(
+                ServiceRequestOperationDTO.builder().type(OperationType.CREATE).user(this.requestUserDTO).build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.UPDATE).id("1").user(this.requestUserDTO).build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.DELETE).id("2").build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.UPSERT).id("3").user(this.requestUserDTO).build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.DELETE).build());
+        when(userRepository.bulkWrite(anyList())).thenReturn(UserBulkWriteResult.builder()
+                .insertedCount(1)
+                .matchedCount(1)
+                .modifiedCount(1)
+                .upsertedIds(Map.of(3, "3"))
+                .failures(Collections.emptyMap())
+                .build());
+        var stubActual = userServiceImpl.bulkWrite(operations);
+        var statuses = stubActual.getOperations().stream()
+                .map(ServiceResponseOperationDTO::getStatus)
+                .collect(Collectors.toList());
+        assertEquals(List.of(OperationStatus.CREATED, OperationStatus.UPDATED, OperationStatus.NOT_FOUND,
+                OperationStatus.CREATED, OperationStatus.FAILED), statuses);
+        assertEquals(2, stubActual.getCreated());
+        assertEquals(1, stubActual.getModified());
+        verify(userRepository, times(1)).bulkWrite(argThat(writes -> writes.size() == 4));
+    }
+
+    @Test
+    void whenOnlySomeDeletesOfABulkWriteMatchShouldReportThemAsUnknown() {
+        var operations = List.of(
+                ServiceRequestOperationDTO.builder().type(OperationType.UPSERT).id("1").user(this.requestUserDTO).build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.UPDATE).id("2").user(this.requestUserDTO).build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.DELETE).id("3").build(),
+                ServiceRequestOperationDTO.builder().type(OperationType.DELETE).id("4").build());
+        when(userRepository.bulkWrite(anyList())).thenReturn(UserBulkWriteResult.builder()
+                .matchedCount(2)
+                .modifiedCount(2)
+                .deletedCount(1)
+                .upsertedIds(Collections.emptyMap())
+                .failures(Collections.emptyMap())
+                .build());
+        var stubActual = userServiceImpl.bulkWrite(operations);
+        var statuses = stubActual.getOperations().stream()
+                .map(ServiceResponseOperationDTO::getStatus)
+                .collect(Collectors.toList());
+        assertEquals(List.of(OperationStatus.UPDATED, OperationStatus.UPDATED, OperationStatus.UNKNOWN,
+                OperationStatus.UNKNOWN), statuses);
+        assertEquals(1, stubActual.getDeleted());
+    }
+
+    @Test
+    void whenBulkWriteHasNothingToWriteShouldNotCallTheDatabase() {
+        var operations = List.of(
+                ServiceRequestOperationDTO.builder().type(OperationType.DELETE).build());
+        var stubActual = userServiceImpl.bulkWrite(operations);
+        assertEquals(OperationStatus.FAILED, stubActual.getOperations().get(0).getStatus());
+        verify(userRepository, never()).bulkWrite(anyList());
+    }
+
     @Test
     void whenUpdateShouldReturnTheUpdatedUser() {
-        when(userRepository.existsById(this.user.getId())).thenReturn(true);
-        when(userRepository.save(this.user)).thenReturn(this.user);
+        when(userRepository.replaceIfExists(this.user)).thenReturn(Optional.of(this.user));
         var stubActual = userServiceImpl.update("1", this.requestUserDTO);
         var stubExpected = ServiceResponseUserDTO.builder()
                 .id(this.user.getId())
@@ -128,38 +432,85 @@ class UserServiceImplTest {
 
     @Test
     void whenUpdateShouldThrowAnException() {
-        when(userRepository.existsById(this.user.getId())).thenReturn(false);
+        when(userRepository.replaceIfExists(this.user)).thenReturn(Optional.empty());
         var thrown = assertThrows(ResponseStatusException.class,
                 () -> userServiceImpl.update("1", this.requestUserDTO));
         assertEquals(HttpStatus.NOT_FOUND, thrown.getStatus());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void whenPatchHasAPasswordShouldWriteItsHash() {
+        when(passwordHasher.hash("secret")).thenReturn("$2a$10$hash");
+        when(userRepository.updateFields("1", Map.of("password", "$2a$10$hash"))).thenReturn(Optional.of(this.user));
+        userServiceImpl.patch("1", new HashMap<>(Map.of("password", "secret")));
+        verify(userRepository).updateFields("1", Map.of("password", "$2a$10$hash"));
+    }
+
+    @Test
+    void whenPatchShouldWriteOnlyTheGivenFields() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("name", "André");
+        fields.put("login", null);
+        Map<String, Object> expectedChanges = new HashMap<>(fields);
+        expectedChanges.put("searchName", "andre");
+        when(userRepository.updateFields("1", expectedChanges)).thenReturn(Optional.of(this.user));
+        var stubActual = userServiceImpl.patch("1", fields);
+        assertEquals(this.user.getId(), stubActual.getId());
+        verify(userQueryCache, times(1)).evict(this.user.getId(), this.user.getSearchName());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void whenPatchHasAFieldThatCanNotBeUpdatedShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.patch("1", Map.of("admin", true)));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+        verify(userRepository, never()).updateFields(anyString(), anyMap());
+    }
+
+    @Test
+    void whenPatchHasNoFieldsShouldThrowBadRequest() {
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.patch("1", Collections.emptyMap()));
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void whenPatchNotFoundShouldThrowNotFound() {
+        when(userRepository.updateFields("1", Map.of("surname", "Souza"))).thenReturn(Optional.empty());
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> userServiceImpl.patch("1", Map.of("surname", "Souza")));
+        assertEquals(HttpStatus.NOT_FOUND, thrown.getStatus());
     }
 
     @Test
     @Disabled("Logic Changed")
     void whenFindAllReturnEmptyListShouldThrownException() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
-        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findAll());
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.emptyList());
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findAll(10, null));
         assertEquals(HttpStatus.NO_CONTENT, thrown.getStatus());
     }
 
     @Test
     @Disabled("Logic Changed")
     void whenFindByNameThatNotExistsShouldThrownException() {
-        when(userRepository.findByNameIgnoreCaseContaining("Zé")).thenReturn(Collections.emptyList());
-        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findByName("Zé"));
+        when(userRepository.findBySearchNameStartingWith(eq("ze"), any(Pageable.class))).thenReturn(Collections.emptyList());
+        var thrown = assertThrows(ResponseStatusException.class, () -> userServiceImpl.findByName("Zé", 10, null));
         assertEquals(HttpStatus.NOT_FOUND, thrown.getStatus());
     }
 
     @Test
     void whenDeleteByIdShouldReturnNothing() {
-        when(userRepository.existsById(this.user.getId())).thenReturn(true);
+        when(userRepository.removeById(this.user.getId())).thenReturn(true);
         userServiceImpl.deleteById(this.user.getId());
-        verify(userRepository, times(1)).deleteById(this.user.getId());
+        verify(userRepository, times(1)).removeById(this.user.getId());
+        verify(userRepository, never()).existsById(anyString());
     }
 
     @Test
     void whenDeleteByIdNotFoundShouldThrownException() {
-        when(userRepository.existsById(this.user.getId())).thenReturn(false);
+        when(userRepository.removeById(this.user.getId())).thenReturn(false);
         var thrown = assertThrows(ResponseStatusException.class,
                 () -> userServiceImpl.deleteById("1"));
         assertEquals(HttpStatus.NOT_FOUND, thrown.getStatus());
@@ -0,0 +1,118 @@
+package com.technocorp.service;
+
+import com.technocorp.repository.UserRepository;
+import com.technocorp.util.dto.ServiceRequestUserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserWriteBehindTest {
+
+    private final ServiceRequestUserDTO request = ServiceRequestUserDTO.builder().name("Andrews").cpf("123").build();
+    private UserRepository userRepository;
+    private UserProperties properties;
+    private UserWriteBehind userWriteBehind;
+
+    @BeforeEach
+    void setup() {
+        this.userRepository = mock(UserRepository.class);
+        when(userRepository.insertAll(anyList(), eq(false))).thenReturn(Collections.emptyMap());
+        this.properties = new UserProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setFlushInterval(Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void stop() {
+        userWriteBehind.stop();
+    }
+
+    @Test
+    void whenFlushSizeUsersAreQueuedShouldInsertThemWithoutWaitingForTheInterval() {
+        properties.getWriteBehind().setFlushSize(2);
+        start();
+        var first = userWriteBehind.enqueue(request);
+        var second = userWriteBehind.enqueue(request);
+        assertNotNull(first.getId());
+        verify(userRepository, timeout(1000)).insertAll(
+                argThat(users -> users.equals(List.of(first, second))), eq(false));
+    }
+
+    @Test
+    void whenABatchIsFlushedShouldEvictOnlyThePagesOfItsUsers() {
+        properties.getWriteBehind().setFlushSize(2);
+        var userQueryCache = mock(UserQueryCache.class);
+        this.userWriteBehind = new UserWriteBehind(userRepository, userQueryCache, new PasswordHasher(properties),
+                properties);
+        userWriteBehind.start();
+        var first = userWriteBehind.enqueue(request);
+        var second = userWriteBehind.enqueue(request);
+        verify(userQueryCache, timeout(1000)).evict(first.getId(), "andrews");
+        verify(userQueryCache, timeout(1000)).evict(second.getId(), "andrews");
+        verify(userQueryCache, never()).evictAll();
+    }
+
+    @Test
+    void whenStoppedShouldDrainTheQueueBeforeReturning() {
+        properties.getWriteBehind().setFlushSize(100);
+        start();
+        userWriteBehind.enqueue(request);
+        userWriteBehind.enqueue(request);
+        userWriteBehind.enqueue(request);
+        userWriteBehind.stop();
+        verify(userRepository, times(1)).insertAll(argThat(users -> users.size() == 3), eq(false));
+    }
+
+    @Test
+    void whenTheQueueIsFullShouldThrowTooManyRequests() throws InterruptedException {
+        properties.getWriteBehind().setFlushSize(1);
+        properties.getWriteBehind().setQueueCapacity(1);
+        var release = new CountDownLatch(1);
+        when(userRepository.insertAll(anyList(), eq(false))).thenAnswer(invocation -> {
+            release.await();
+            return Collections.emptyMap();
+        });
+        start();
+        userWriteBehind.enqueue(request);
+        // The flusher holds the first user in a write that doesn't finish, the second one fills the queue.
+        verify(userRepository, timeout(1000)).insertAll(anyList(), eq(false));
+        userWriteBehind.enqueue(request);
+        var thrown = assertThrows(ResponseStatusException.class, () -> userWriteBehind.enqueue(request));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, thrown.getStatus());
+        release.countDown();
+    }
+
+    @Test
+    void whenNotRunningShouldThrowServiceUnavailable() {
+        this.userWriteBehind = new UserWriteBehind(userRepository, new UserQueryCache(properties),
+                new PasswordHasher(properties), properties);
+        var thrown = assertThrows(ResponseStatusException.class, () -> userWriteBehind.enqueue(request));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, thrown.getStatus());
+    }
+
+    private void start() {
+        this.userWriteBehind = new UserWriteBehind(userRepository, new UserQueryCache(properties),
+                new PasswordHasher(properties), properties);
+        userWriteBehind.start();
+    }
+}
@@ -0,0 +1,21 @@
+package com.technocorp.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Builds the indexed form of a CPF: digits only, so "123.456.789-09" and "12345678909" are the same key.
+ */
+public class Cpf {
+
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+
+    private Cpf(){}
+
+    public static String normalize(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        var digits = NON_DIGITS.matcher(cpf).replaceAll("");
+        return digits.isEmpty() ? null : digits;
+    }
+}
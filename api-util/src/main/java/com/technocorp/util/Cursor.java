@@ -0,0 +1,39 @@
+package com.technocorp.util;
+
+import org.bson.types.ObjectId;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Opaque keyset cursor: wraps the id of the last user of a page so clients can't depend on its format.
+ */
+public class Cursor {
+
+    private Cursor(){}
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String id;
+        try {
+            id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+        // Any other text would be compared to the ObjectIds as a string and match nothing, an empty last page.
+        if (!ObjectId.isValid(id)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+        }
+        return id;
+    }
+}
@@ -1,75 +1,96 @@
 package com.technocorp.util;
 
 import com.technocorp.model.User;
+import com.technocorp.util.dto.ControllerRequestOperationDTO;
 import com.technocorp.util.dto.ControllerRequestUserDTO;
+import com.technocorp.util.dto.ControllerResponseBatchItemDTO;
+import com.technocorp.util.dto.ControllerResponseBulkWriteDTO;
+import com.technocorp.util.dto.ControllerResponseOperationDTO;
 import com.technocorp.util.dto.ControllerResponseUserDTO;
+import com.technocorp.util.dto.ServiceRequestOperationDTO;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponseBulkWriteDTO;
+import com.technocorp.util.dto.ServiceResponseOperationDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
-import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static org.springframework.http.HttpStatus.BAD_REQUEST;
-
+/**
+ * Maps between the layers with plain constructor calls: one allocation per object mapped, no builders,
+ * no Optional and no reflection. The list mappers size their result up front, so mapping a page
+ * costs one DTO per user plus a single array.
+ */
 public class Mapper {
 
     private Mapper(){}
 
     public static final Function<ControllerRequestUserDTO, ServiceRequestUserDTO> toServiceRequestUserDTO =
-            requestUser -> Optional.ofNullable(ServiceRequestUserDTO.builder()
-                    .name(requestUser.getName())
-                    .surname(requestUser.getSurname())
-                    .age(requestUser.getAge())
-                    .cpf(requestUser.getCpf())
-                    .login(requestUser.getLogin())
-                    .password(requestUser.getPassword())
-                    .build())
-            .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,"Invalid Data"));
+            Mapper::serviceRequestOf;
 
     public static final Function<ServiceResponseUserDTO, ControllerResponseUserDTO> toControllerResponseUserDTO =
-            responseUser -> Optional.ofNullable(ControllerResponseUserDTO.builder()
-                    .id(responseUser.getId())
-                    .name(responseUser.getName())
-                    .surname(responseUser.getSurname())
-                    .age(responseUser.getAge())
-                    .cpf(responseUser.getCpf())
-                    .admin(responseUser.isAdmin())
-                    .build())
-            .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,"Invalid Data"));
+            Mapper::controllerResponseOf;
 
     public static final Function<ServiceRequestUserDTO, User> toUserSave =
-            request -> Optional.ofNullable(User.builder()
-                    .name(request.getName())
-                    .login(request.getLogin())
-                    .password(request.getPassword())
-                    .surname(request.getSurname())
-                    .cpf(request.getCpf())
-                    .age(request.getAge())
-                    .build())
-            .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,"Invalid Data"));
+            request -> userOf(null, request);
 
     public static final Function<User, ServiceResponseUserDTO> toServiceResponseUserDTO =
-            user -> Optional.ofNullable(ServiceResponseUserDTO.builder()
-                    .id(user.getId())
-                    .name(user.getName())
-                    .surname(user.getSurname())
-                    .age(user.getAge())
-                    .cpf(user.getCpf())
-                    .admin(user.isAdmin())
-                    .build())
-            .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,"invalid Data"));
+            Mapper::serviceResponseOf;
 
     public static final BiFunction<String, ServiceRequestUserDTO, User> toUserUpdate =
-            (id, request) -> Optional.ofNullable(User.builder()
-                    .id(id)
-                    .name(request.getName())
-                    .login(request.getLogin())
-                    .password(request.getPassword())
-                    .surname(request.getSurname())
-                    .cpf(request.getCpf())
-                    .age(request.getAge())
-                    .build())
-            .orElseThrow(() -> new ResponseStatusException(BAD_REQUEST,"invalid Data"));
+            Mapper::userOf;
+
+    public static final Function<ServiceResponseBatchItemDTO, ControllerResponseBatchItemDTO> toControllerResponseBatchItemDTO =
+            item -> new ControllerResponseBatchItemDTO(item.getIndex(), item.getId(), item.getError());
+
+    public static final Function<ControllerRequestOperationDTO, ServiceRequestOperationDTO> toServiceRequestOperationDTO =
+            operation -> new ServiceRequestOperationDTO(operation.getType(), operation.getId(),
+                    operation.getUser() == null ? null : serviceRequestOf(operation.getUser()));
+
+    public static final Function<ServiceResponseOperationDTO, ControllerResponseOperationDTO> toControllerResponseOperationDTO =
+            operation -> new ControllerResponseOperationDTO(operation.getIndex(), operation.getType(),
+                    operation.getId(), operation.getStatus(), operation.getError());
+
+    public static final Function<ServiceResponseBulkWriteDTO, ControllerResponseBulkWriteDTO> toControllerResponseBulkWriteDTO =
+            result -> new ControllerResponseBulkWriteDTO(result.getCreated(), result.getMatched(),
+                    result.getModified(), result.getDeleted(), map(result.getOperations(), toControllerResponseOperationDTO));
+
+    public static List<ServiceResponseUserDTO> toServiceResponseUserDTOs(List<User> users) {
+        return map(users, toServiceResponseUserDTO);
+    }
+
+    public static List<ControllerResponseUserDTO> toControllerResponseUserDTOs(List<ServiceResponseUserDTO> users) {
+        return map(users, toControllerResponseUserDTO);
+    }
+
+    private static ServiceRequestUserDTO serviceRequestOf(ControllerRequestUserDTO request) {
+        return new ServiceRequestUserDTO(null, request.getName(), request.getSurname(), request.getAge(),
+                request.getCpf(), request.getLogin(), request.getPassword());
+    }
+
+    private static ServiceResponseUserDTO serviceResponseOf(User user) {
+        return new ServiceResponseUserDTO(user.getId(), user.getName(), user.getSurname(), user.getAge(),
+                user.getCpf(), user.isAdmin());
+    }
+
+    private static ControllerResponseUserDTO controllerResponseOf(ServiceResponseUserDTO response) {
+        return new ControllerResponseUserDTO(response.getId(), response.getName(), response.getSurname(),
+                response.getAge(), response.getCpf(), response.isAdmin());
+    }
+
+    private static User userOf(String id, ServiceRequestUserDTO request) {
+        return new User(id, request.getName(), SearchKey.of(request.getName()), request.getSurname(),
+                request.getAge(), Cpf.normalize(request.getCpf()), request.getLogin(), request.getPassword(), false);
+    }
+
+    private static <T, R> List<R> map(List<T> source, Function<T, R> mapper) {
+        var target = new ArrayList<R>(source.size());
+        for (var element : source) {
+            target.add(mapper.apply(element));
+        }
+        return target;
+    }
 }
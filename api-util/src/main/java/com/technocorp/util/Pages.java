@@ -0,0 +1,85 @@
+package com.technocorp.util;
+
+import com.technocorp.model.User;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
+import com.technocorp.util.dto.ServiceResponseUserDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Keyset paging shared by the servlet and reactive services: pages are ordered by id and continue after a {@link Cursor}.
+ * Each page carries an ETag computed from its content, so a cached page answers If-None-Match without
+ * a query and a page that didn't change answers it without being serialized. The ETag is weak because Tomcat
+ * doesn't gzip responses with a strong one, the gzipped body is no longer the bytes it was computed from.
+ */
+public class Pages {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private Pages(){}
+
+    // Asks for one extra user so we know whether a next page exists without a count query.
+    public static Pageable pageOf(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(0, limit + 1, Sort.by("id"));
+    }
+
+    public static ServiceResponsePageDTO toPage(List<User> users, int limit) {
+        var hasNext = users.size() > limit;
+        var page = Mapper.toServiceResponseUserDTOs(hasNext ? users.subList(0, limit) : users);
+        var nextCursor = hasNext ? Cursor.encode(page.get(limit - 1).getId()) : null;
+        return ServiceResponsePageDTO.builder()
+                .users(page)
+                .nextCursor(nextCursor)
+                .etag(etagOf(page, nextCursor))
+                .build();
+    }
+
+    // Hashes every field that ends up in the response, equal tags mean byte for byte equal bodies.
+    static String etagOf(List<ServiceResponseUserDTO> users, String nextCursor) {
+        var digest = sha256();
+        for (var user : users) {
+            update(digest, user.getId());
+            update(digest, user.getName());
+            update(digest, user.getSurname());
+            update(digest, Objects.toString(user.getAge(), null));
+            update(digest, user.getCpf());
+            update(digest, String.valueOf(user.isAdmin()));
+        }
+        update(digest, nextCursor);
+        var hash = digest.digest();
+        var etag = new StringBuilder(36).append("W/\"");
+        for (int i = 0; i < 16; i++) {
+            etag.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+        return etag.append('"').toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // Separates the fields and tells null apart from an empty text.
+        digest.update(value == null ? (byte) 0 : (byte) 1);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.technocorp.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the indexed search key of a name: accents folded and lowercased, so "José" and "jose" share a key.
+ */
+public class SearchKey {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKey(){}
+
+    public static String of(String name) {
+        if (name == null) {
+            return null;
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(name.trim(), Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+}
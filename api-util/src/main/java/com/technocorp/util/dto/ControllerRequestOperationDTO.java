@@ -0,0 +1,24 @@
+package com.technocorp.util.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ApiModel("ControllerRequestOperationDTO : One write of a bulk write request")
+public class ControllerRequestOperationDTO {
+
+    @ApiModelProperty(value = "The kind of write")
+    private OperationType type;
+    @ApiModelProperty(value = "Identifier of the user, required unless type is CREATE")
+    private String id;
+    @ApiModelProperty(value = "The user to write, required unless type is DELETE")
+    private ControllerRequestUserDTO user;
+
+}
@@ -19,7 +19,7 @@ public class ControllerRequestUserDTO {
     @ApiModelProperty(value = "Surname of the user")
     private String surname;
     @ApiModelProperty(value = "Age of the user")
-    private String age;
+    private Integer age;
     @ApiModelProperty(value = "CPF of the user")
     private String cpf;
     @ApiModelProperty(value = "Login of the user(Not returned)")
@@ -0,0 +1,23 @@
+package com.technocorp.util.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ApiModel("ControllerResponseBatchItemDTO : The result of one user of a batch")
+public class ControllerResponseBatchItemDTO {
+
+    @ApiModelProperty(value = "Position of the user in the request")
+    private int index;
+    @ApiModelProperty(value = "Identifier of the created user, absent if it failed")
+    private String id;
+    @ApiModelProperty(value = "Why the user was not created, absent if it succeeded")
+    private String error;
+}
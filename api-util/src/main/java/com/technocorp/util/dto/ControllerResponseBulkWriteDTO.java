@@ -0,0 +1,29 @@
+package com.technocorp.util.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ApiModel("ControllerResponseBulkWriteDTO : The outcome of a bulk write")
+public class ControllerResponseBulkWriteDTO {
+
+    @ApiModelProperty(value = "Users inserted, by CREATE or by an UPSERT of a missing id")
+    private int created;
+    @ApiModelProperty(value = "Users found by UPDATE and UPSERT writes")
+    private int matched;
+    @ApiModelProperty(value = "Users actually changed by UPDATE and UPSERT writes")
+    private int modified;
+    @ApiModelProperty(value = "Users deleted")
+    private int deleted;
+    @ApiModelProperty(value = "The outcome of each write, in request order")
+    private List<ControllerResponseOperationDTO> operations;
+}
@@ -0,0 +1,27 @@
+package com.technocorp.util.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ApiModel("ControllerResponseOperationDTO : The outcome of one write of a bulk write")
+public class ControllerResponseOperationDTO {
+
+    @ApiModelProperty(value = "Position of the write in the request")
+    private int index;
+    @ApiModelProperty(value = "The kind of write")
+    private OperationType type;
+    @ApiModelProperty(value = "Identifier of the written user")
+    private String id;
+    @ApiModelProperty(value = "What happened to the user")
+    private OperationStatus status;
+    @ApiModelProperty(value = "Why the write failed, only present when status is FAILED")
+    private String error;
+}
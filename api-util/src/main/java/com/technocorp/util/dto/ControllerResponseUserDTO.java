@@ -21,7 +21,7 @@ public class ControllerResponseUserDTO {
     @ApiModelProperty(value = "Surname of the user")
     private String surname;
     @ApiModelProperty(value = "Age of the user")
-    private String age;
+    private Integer age;
     @ApiModelProperty(value = "CPF of the user")
     private String cpf;
     @ApiModelProperty(value = "If the user is an admin")
@@ -0,0 +1,5 @@
+package com.technocorp.util.dto;
+
+public enum OperationStatus {
+    CREATED, UPDATED, DELETED, NOT_FOUND, UNKNOWN, FAILED
+}
@@ -0,0 +1,5 @@
+package com.technocorp.util.dto;
+
+public enum OperationType {
+    CREATE, UPDATE, UPSERT, DELETE
+}
@@ -0,0 +1,18 @@
+package com.technocorp.util.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceRequestOperationDTO {
+
+    private OperationType type;
+    private String id;
+    private ServiceRequestUserDTO user;
+
+}
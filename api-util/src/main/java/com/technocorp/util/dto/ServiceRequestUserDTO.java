@@ -14,7 +14,7 @@ public class ServiceRequestUserDTO {
     private String id;
     private String name;
     private String surname;
-    private String age;
+    private Integer age;
     private String cpf;
     private String login;
     private String password;
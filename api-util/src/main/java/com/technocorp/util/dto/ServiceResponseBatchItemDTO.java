@@ -0,0 +1,18 @@
+package com.technocorp.util.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceResponseBatchItemDTO {
+
+    private int index;
+    private String id;
+    private String error;
+
+}
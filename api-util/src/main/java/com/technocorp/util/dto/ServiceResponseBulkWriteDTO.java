@@ -0,0 +1,22 @@
+package com.technocorp.util.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceResponseBulkWriteDTO {
+
+    private int created;
+    private int matched;
+    private int modified;
+    private int deleted;
+    private List<ServiceResponseOperationDTO> operations;
+
+}
@@ -0,0 +1,20 @@
+package com.technocorp.util.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceResponseOperationDTO {
+
+    private int index;
+    private OperationType type;
+    private String id;
+    private OperationStatus status;
+    private String error;
+
+}
@@ -0,0 +1,20 @@
+package com.technocorp.util.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceResponsePageDTO {
+
+    private List<ServiceResponseUserDTO> users;
+    private String nextCursor;
+    private String etag;
+
+}
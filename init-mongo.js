@@ -1,92 +1,107 @@
 db.users.insertMany([
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "12345678909",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "João",
+        "searchName": "joao",
         "surname": "Maria",
-        "age": "38",
-        "cpf": "168549789-95",
+        "age": 38,
+        "cpf": "16854978963",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "Felipe",
+        "searchName": "felipe",
         "surname": "Maria",
-        "age": "80",
-        "cpf": "127777777-95",
+        "age": 80,
+        "cpf": "12777777721",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "Gabrielli",
+        "searchName": "gabrielli",
         "surname": "Carvalho",
-        "age": "30",
-        "cpf": "027770895-71",
+        "age": 30,
+        "cpf": "02777089582",
         "login": "gabi",
         "password": "260117",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "Andrews",
+        "searchName": "andrews",
         "surname": "Souza",
-        "age": "30",
-        "cpf": "020789060-93",
+        "age": 30,
+        "cpf": "02078906093",
         "login": "sirius",
         "password": "260117",
-        "admin": "true"
+        "admin": true
     },
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "52998224725",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "11144477735",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "39053344705",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "86288366757",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     },
     {
         "name": "José",
+        "searchName": "jose",
         "surname": "Maria",
-        "age": "45",
-        "cpf": "123456789-95",
+        "age": 45,
+        "cpf": "45317828791",
         "login": "ze",
         "password": "855",
-        "admin": "false"
+        "admin": false
     }
-])
\ No newline at end of file
+])
+
+// Same indexes the application builds on startup, CPFs are stored as digits only.
+db.users.createIndex({"searchName": 1, "_id": 1}, {"name": "searchName_id"})
+db.users.createIndex({"cpf": 1}, {"name": "cpf", "unique": true, "sparse": true})
+db.users.createIndex({"admin": 1, "_id": 1, "age": 1}, {"name": "admin_id_age"})
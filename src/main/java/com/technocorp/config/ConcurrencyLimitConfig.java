@@ -0,0 +1,31 @@
+package com.technocorp.config;
+
+import com.technocorp.controller.ConcurrencyLimitInterceptor;
+import com.technocorp.service.UserProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "users.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+// Also binds the properties in web slice tests, which skip the properties scan of the application.
+@EnableConfigurationProperties(UserProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final UserProperties userProperties;
+
+    // The export is left out, it runs for as long as the collection takes to write and says nothing about load.
+    // So are the batch writes, whose latency grows with the size of the batch: counted as writes, a few large
+    // batches would shrink the cap of single writes. They are bounded by batch.max-size and the password queue.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(userProperties.getLimiter()))
+                .addPathPatterns("/users", "/users/**")
+                .excludePathPatterns("/users/stream", "/users/batch", "/users/operations");
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.technocorp.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "users.json", name = "afterburner", havingValue = "true", matchIfMissing = true)
+public class JacksonConfig {
+
+    // Spring Boot adds every Module bean to the ObjectMapper of MVC, Afterburner swaps the reflective
+    // getter and setter calls on the DTOs for generated bytecode.
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+}
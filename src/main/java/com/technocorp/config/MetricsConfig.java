@@ -0,0 +1,28 @@
+package com.technocorp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Makes the @Timed on the service methods record, it is not applied without this aspect.
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMetrics(MeterRegistry registry) {
+        return settings -> settings
+                .addCommandListener(new MongoCommandMetrics(registry))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(registry))
+                        .addConnectionPoolListener(new MongoPoolMetrics(registry)));
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.technocorp.config;
+
+import com.mongodb.MongoCompressor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Configuration
+public class MongoClientConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDriverSettings(MongoClientProperties properties) {
+        var pool = properties.getPool();
+        var socket = properties.getSocket();
+        return settings -> settings
+                .applyToConnectionPoolSettings(builder -> builder
+                        .minSize(pool.getMinSize())
+                        .maxSize(pool.getMaxSize())
+                        .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionLifeTime(pool.getMaxConnectionLifeTime().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(builder -> builder
+                        .connectTimeout((int) socket.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout((int) socket.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .compressorList(properties.getCompressors().stream()
+                        .map(MongoClientConfig::compressorOf)
+                        .collect(Collectors.toList()));
+    }
+
+    // snappy and zstd also need their library on the classpath, zlib comes with the JDK.
+    private static MongoCompressor compressorOf(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "zlib":
+                return MongoCompressor.createZlibCompressor();
+            case "snappy":
+                return MongoCompressor.createSnappyCompressor();
+            case "zstd":
+                return MongoCompressor.createZstdCompressor();
+            default:
+                throw new IllegalArgumentException("Unknown Mongo compressor " + name + ", use zlib, snappy or zstd");
+        }
+    }
+
+}
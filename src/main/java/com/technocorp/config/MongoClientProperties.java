@@ -0,0 +1,37 @@
+package com.technocorp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Driver settings Spring Boot has no properties for. They are applied after spring.data.mongodb, so they also win
+ * over the same options given in a connection string.
+ */
+@Data
+@ConfigurationProperties(prefix = "mongodb.client")
+public class MongoClientProperties {
+
+    private final Pool pool = new Pool();
+    private final Socket socket = new Socket();
+    // zlib, snappy or zstd, in order of preference, the server picks the first one it supports.
+    private List<String> compressors = new ArrayList<>();
+
+    @Data
+    public static class Pool {
+        private int minSize = 0;
+        private int maxSize = 100;
+        private Duration maxWaitTime = Duration.ofSeconds(2);
+        private Duration maxConnectionIdleTime = Duration.ZERO;
+        private Duration maxConnectionLifeTime = Duration.ZERO;
+    }
+
+    @Data
+    public static class Socket {
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ZERO;
+    }
+}
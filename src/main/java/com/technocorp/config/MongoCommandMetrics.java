@@ -0,0 +1,80 @@
+package com.technocorp.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every Mongo command and how many documents it returned or wrote, tagged by command name.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+    public static final String COMMANDS = "mongodb.driver.commands";
+    public static final String DOCUMENTS = "mongodb.driver.commands.documents";
+
+    private final MeterRegistry registry;
+
+    public MongoCommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // The elapsed time comes with the outcome event, nothing to keep from here.
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        timer(event.getCommandName(), "SUCCESS").record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        var documents = documentsOf(event.getResponse());
+        if (documents >= 0) {
+            DistributionSummary.builder(DOCUMENTS)
+                    .description("Documents returned or written by a Mongo command")
+                    .tag("command", event.getCommandName())
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        timer(event.getCommandName(), "FAILED").record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String command, String status) {
+        return Timer.builder(COMMANDS)
+                .description("Latency of the Mongo commands")
+                .tag("command", command)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Cursor replies carry the batch they return, write replies the count they affected; -1 when there is neither.
+    private static int documentsOf(BsonDocument response) {
+        if (response == null) {
+            return -1;
+        }
+        if (response.isDocument("cursor")) {
+            var cursor = response.getDocument("cursor");
+            if (cursor.isArray("firstBatch")) {
+                return cursor.getArray("firstBatch").size();
+            }
+            if (cursor.isArray("nextBatch")) {
+                return cursor.getArray("nextBatch").size();
+            }
+        }
+        if (response.isNumber("n")) {
+            return response.getNumber("n").intValue();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.technocorp.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how long requests wait for a pooled connection, how many are waiting and the size the pool may grow to,
+ * per server. With Micrometer's pool listener, which exports the size and checked out connections, it shows
+ * whether the pool is what requests queue on: checked out at the maximum while some are waiting.
+ * The driver of this version no longer sends the wait queue events Micrometer counts its waiting gauge with.
+ */
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+    public static final String WAIT = "mongodb.driver.pool.wait";
+    public static final String WAITING = "mongodb.driver.pool.waiting";
+    public static final String MAX_SIZE = "mongodb.driver.pool.max";
+
+    // Check out events come on the thread asking for the connection, in the synchronous driver the application uses.
+    private final ThreadLocal<Long> checkOutStarted = new ThreadLocal<>();
+    private final Map<ServerId, AtomicInteger> waiting = new ConcurrentHashMap<>();
+    private final Map<ServerId, List<Meter>> gauges = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public MongoPoolMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        var serverId = event.getServerId();
+        var waitingOnServer = waiting.computeIfAbsent(serverId, id -> new AtomicInteger());
+        var maxSize = event.getSettings().getMaxSize();
+        gauges.put(serverId, List.of(
+                Gauge.builder(WAITING, waitingOnServer, AtomicInteger::get)
+                        .description("Requests waiting for a connection from the pool")
+                        .tags(tagsOf(serverId))
+                        .register(registry),
+                Gauge.builder(MAX_SIZE, () -> maxSize)
+                        .description("Connections the pool may open")
+                        .tags(tagsOf(serverId))
+                        .register(registry)));
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        var removed = gauges.remove(event.getServerId());
+        if (removed != null) {
+            removed.forEach(registry::remove);
+        }
+        waiting.remove(event.getServerId());
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkOutStarted.set(System.nanoTime());
+        waitingOn(event.getServerId()).incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        var serverId = event.getConnectionId().getServerId();
+        waitingOn(serverId).decrementAndGet();
+        record(serverId, "CHECKED_OUT");
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitingOn(event.getServerId()).decrementAndGet();
+        record(event.getServerId(), "FAILED");
+    }
+
+    private void record(ServerId serverId, String outcome) {
+        var started = checkOutStarted.get();
+        if (started == null) {
+            return;
+        }
+        checkOutStarted.remove();
+        Timer.builder(WAIT)
+                .description("Time spent waiting for a connection from the pool")
+                .tags(tagsOf(serverId))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger waitingOn(ServerId serverId) {
+        return waiting.computeIfAbsent(serverId, id -> new AtomicInteger());
+    }
+
+    // The same tags Micrometer's pool metrics use, so both can be put side by side.
+    private static Tags tagsOf(ServerId serverId) {
+        return Tags.of("cluster.id", serverId.getClusterId().getValue(),
+                "server.address", serverId.getAddress().toString());
+    }
+}
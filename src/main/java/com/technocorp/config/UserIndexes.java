@@ -0,0 +1,58 @@
+package com.technocorp.config;
+
+import com.technocorp.model.User;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the indexes the user queries rely on while the application starts, before it takes any request.
+ * Spring Data leaves the ones declared on {@link User} unbuilt, so without this only a database seeded by
+ * init-mongo.js or the dataset generator would have them. Mongo skips the indexes that already exist. Without the
+ * unique cpf index a repeated CPF would be saved instead of answered with 409.
+ * Off with {@code users.indexes.ensure=false}, for tests that run without a database.
+ */
+@Slf4j
+@Component
+// Nothing depends on it, so with lazy initialization on, as in the fast-startup profile, it would never be created.
+@Lazy(false)
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "users.indexes", name = "ensure", havingValue = "true", matchIfMissing = true)
+public class UserIndexes implements InitializingBean {
+
+    private final MongoTemplate mongoTemplate;
+    private final Environment environment;
+
+    @Override
+    public void afterPropertiesSet() {
+        var indexes = mongoTemplate.indexOps(User.class);
+        indexes.ensureIndex(new CompoundIndexDefinition(
+                new Document("searchName", 1).append("_id", 1)).named("searchName_id"));
+        // The age and admin filters name it as their hint, Mongo fails those queries while it is missing.
+        indexes.ensureIndex(new CompoundIndexDefinition(
+                new Document("admin", 1).append("_id", 1).append("age", 1)).named("admin_id_age"));
+        // The CPF migration builds it once the CPFs are digits only: built here on the raw values, two spellings of
+        // the same CPF would pass the index and then collide when the migration normalizes them.
+        if (environment.getProperty("users.migration.cpf", Boolean.class, false)) {
+            log.info("User indexes in place, the unique cpf index is left to the CPF migration");
+            return;
+        }
+        try {
+            indexes.ensureIndex(new Index("cpf", Sort.Direction.ASC).named("cpf").unique().sparse());
+        } catch (DuplicateKeyException e) {
+            // Starting anyway, the migration is what sorts the repeated CPFs out and then builds the index.
+            log.warn("The unique cpf index was not built, some users share a CPF. Run once with users.migration.cpf=true");
+        }
+        log.info("User indexes in place");
+    }
+}
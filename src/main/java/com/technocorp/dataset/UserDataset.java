@@ -0,0 +1,120 @@
+package com.technocorp.dataset;
+
+import com.technocorp.model.User;
+import com.technocorp.util.SearchKey;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic users with the shape of real ones: popular first names and surnames come up far more often than rare ones,
+ * ages lean towards young adults with a long tail, and CPFs are unique with valid check digits.
+ * The user at an index only depends on the seed, so any slice of the dataset can be generated on its own.
+ */
+public class UserDataset {
+
+    // Ordered by popularity, picked with a Zipf distribution over the position.
+    private static final String[] NAMES = {"Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos", "Paulo",
+            "Pedro", "Lucas", "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Francisca", "Daniel", "Marcelo", "Bruno",
+            "Eduardo", "Felipe", "Raimundo", "Rodrigo", "Antônia", "Adriana", "Juliana", "Márcia", "Fernanda", "Patrícia",
+            "Aline", "Sandra", "Camila", "Amanda", "Bruna", "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa",
+            "Mariana", "Gabriela", "Vitória", "Larissa", "Cláudia", "Beatriz", "Luana", "Rita", "Sônia", "Renata",
+            "Eliane", "Sebastião", "André", "Fábio", "Otávio", "Vinícius", "Caio", "Matheus", "Thiago", "Gustavo",
+            "Andrews", "Gabrielli", "Conceição", "Inês", "Joaquim", "Benedito", "Helena", "Valéria", "Simão", "Irene"};
+
+    private static final String[] SURNAMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares",
+            "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques",
+            "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira", "Araújo",
+            "Conceição", "Brandão", "Magalhães", "Assunção", "Damião", "Falcão", "Simões", "Guimarães", "Muniz"};
+
+    private static final double[] NAME_WEIGHTS = zipf(NAMES.length, 1.1);
+    private static final double[] SURNAME_WEIGHTS = zipf(SURNAMES.length, 0.9);
+
+    // 9 digit CPF bases are visited in a scrambled order: the multiplier is coprime with 10^9, so no base repeats.
+    private static final long CPF_BASES = 1_000_000_000L;
+    private static final long CPF_MULTIPLIER = 387_420_489L;
+
+    private static final String CLASS = User.class.getName();
+
+    private final long seed;
+
+    public UserDataset(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The user at {@code index}, as the document Spring Data would have saved for it.
+     */
+    public Document user(long index) {
+        var random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        var name = NAMES[pick(NAME_WEIGHTS, random)];
+        var surname = random.nextInt(10) < 6
+                ? SURNAMES[pick(SURNAME_WEIGHTS, random)] + " " + SURNAMES[pick(SURNAME_WEIGHTS, random)]
+                : SURNAMES[pick(SURNAME_WEIGHTS, random)];
+        return new Document("name", name)
+                .append("searchName", SearchKey.of(name))
+                .append("surname", surname)
+                .append("age", age(random))
+                .append("cpf", cpf(index))
+                .append("login", SearchKey.of(name) + "." + index)
+                .append("password", Long.toString(random.nextLong(Long.MAX_VALUE), 36))
+                .append("admin", random.nextInt(1000) == 0)
+                .append("_class", CLASS);
+    }
+
+    /**
+     * A CPF unique to {@code index} for the first billion indexes, with both check digits computed as the Receita does.
+     * Stored as digits only, like the API stores them.
+     */
+    public String cpf(long index) {
+        var base = Math.floorMod(index * CPF_MULTIPLIER + seed, CPF_BASES);
+        var digits = new int[11];
+        for (int i = 8; i >= 0; i--) {
+            digits[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digits[9] = checkDigit(digits, 9);
+        digits[10] = checkDigit(digits, 10);
+        var cpf = new StringBuilder(11);
+        for (var digit : digits) {
+            cpf.append(digit);
+        }
+        return cpf.toString();
+    }
+
+    private static int checkDigit(int[] digits, int length) {
+        var sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += digits[i] * (length + 1 - i);
+        }
+        var rest = sum % 11;
+        return rest < 2 ? 0 : 11 - rest;
+    }
+
+    // Log-normal around a median of 34, clamped to 18..100: most users are 20 to 50 with a tail of older ones.
+    private static int age(SplittableRandom random) {
+        var gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        var age = 18 + (int) Math.exp(2.77 + 0.6 * gaussian);
+        return Math.min(age, 100);
+    }
+
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        var position = Arrays.binarySearch(cumulative, random.nextDouble());
+        return position >= 0 ? position : Math.min(-position - 1, cumulative.length - 1);
+    }
+
+    private static double[] zipf(int size, double exponent) {
+        var cumulative = new double[size];
+        var total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+}
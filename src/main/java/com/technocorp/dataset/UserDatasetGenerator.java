@@ -0,0 +1,106 @@
+package com.technocorp.dataset;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a {@link UserDataset} into the users collection for scale testing, without starting the application.
+ * Each thread inserts its own range of indexes with unordered bulk inserts, and the throughput is printed as it goes.
+ * Run it with ./gradlew generateUsers -PgeneratorArgs="--users=10000000 --drop=true".
+ */
+public class UserDatasetGenerator {
+
+    private static final String COLLECTION = "users";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        var users = Long.parseLong(options.getOrDefault("users", "1000000"));
+        var threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        var batchSize = Integer.parseInt(options.getOrDefault("batch", "1000"));
+        var seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        var uri = new ConnectionString(options.getOrDefault("uri", "mongodb://localhost:8081/test"));
+
+        var settings = MongoClientSettings.builder()
+                .applyConnectionString(uri)
+                .applyToConnectionPoolSettings(pool -> pool.maxSize(threads))
+                .build();
+        try (var client = MongoClients.create(settings)) {
+            var collection = client.getDatabase(uri.getDatabase() == null ? "test" : uri.getDatabase())
+                    .getCollection(COLLECTION);
+            if (Boolean.parseBoolean(options.getOrDefault("drop", "false"))) {
+                collection.drop();
+            }
+            System.out.printf("Inserting %,d users with %d threads in batches of %,d%n", users, threads, batchSize);
+            insert(collection, new UserDataset(seed), users, threads, batchSize);
+
+            // Built once the data is in, which is much faster than maintaining the indexes on every insert.
+            var start = System.nanoTime();
+            collection.createIndex(Indexes.ascending("searchName", "_id"), new IndexOptions().name("searchName_id"));
+            collection.createIndex(Indexes.ascending("cpf"), new IndexOptions().name("cpf").unique(true).sparse(true));
+            collection.createIndex(Indexes.ascending("admin", "_id", "age"), new IndexOptions().name("admin_id_age"));
+            System.out.printf("Indexes searchName_id, cpf and admin_id_age built in %.1f s%n",
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static void insert(MongoCollection<Document> collection, UserDataset dataset, long users, int threads,
+                               int batchSize) throws InterruptedException, ExecutionException {
+        var inserted = new AtomicLong();
+        var workers = Executors.newFixedThreadPool(threads);
+        var progress = Executors.newSingleThreadScheduledExecutor();
+        var start = System.nanoTime();
+        progress.scheduleAtFixedRate(() -> print(inserted.get(), users, start), 5, 5, TimeUnit.SECONDS);
+        try {
+            var slices = new ArrayList<Future<?>>(threads);
+            for (int thread = 0; thread < threads; thread++) {
+                var from = users * thread / threads;
+                var to = users * (thread + 1) / threads;
+                slices.add(workers.submit(() -> {
+                    var options = new InsertManyOptions().ordered(false);
+                    for (long index = from; index < to; index += batchSize) {
+                        var batch = new ArrayList<Document>(batchSize);
+                        for (long user = index; user < Math.min(index + batchSize, to); user++) {
+                            batch.add(dataset.user(user));
+                        }
+                        collection.insertMany(batch, options);
+                        inserted.addAndGet(batch.size());
+                    }
+                }));
+            }
+            for (var slice : slices) {
+                slice.get();
+            }
+        } finally {
+            progress.shutdownNow();
+            workers.shutdownNow();
+        }
+        print(inserted.get(), users, start);
+    }
+
+    private static void print(long inserted, long users, long start) {
+        var seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d of %,d users in %.1f s, %,.0f users/s%n", inserted, users, seconds, inserted / seconds);
+    }
+}
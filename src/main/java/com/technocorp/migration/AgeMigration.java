@@ -0,0 +1,55 @@
+package com.technocorp.migration;
+
+import com.technocorp.model.User;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off job that stores ages saved as text as numbers, and admin flags saved as text as booleans, then builds
+ * the admin_id_age index. Ages that aren't whole numbers are moved to {@code invalidAge} to be sorted out by hand.
+ * Every step is a single update run by the database, nothing is read into the application.
+ * Enabled with {@code users.migration.age=true}, safe to run more than once.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "users.migration", name = "age", havingValue = "true")
+public class AgeMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        var textAge = new Document("age", new Document("$type", "string"));
+
+        var blank = users.updateMany(new Document("age", new Document("$type", "string").append("$regex", "^\\s*$")),
+                new Document("$unset", new Document("age", "")));
+        // A text that isn't a whole number converts to itself, and is moved out of the way below.
+        var converted = users.updateMany(textAge, List.of(new Document("$set", new Document("age",
+                new Document("$convert", new Document("input", new Document("$trim", new Document("input", "$age")))
+                        .append("to", "int")
+                        .append("onError", "$age"))))));
+        var invalid = users.updateMany(textAge, new Document("$rename", new Document("age", "invalidAge")));
+        log.info("Age migration converted {} ages, removed {} blank ones and moved {} to invalidAge",
+                converted.getModifiedCount(), blank.getModifiedCount(), invalid.getModifiedCount());
+
+        var admin = users.updateMany(new Document("admin", new Document("$type", "string")),
+                List.of(new Document("$set", new Document("admin", new Document("$eq", List.of(
+                        new Document("$toLower", new Document("$trim", new Document("input", "$admin"))), "true"))))));
+        log.info("Age migration converted {} admin flags", admin.getModifiedCount());
+
+        mongoTemplate.indexOps(User.class).ensureIndex(new CompoundIndexDefinition(
+                new Document("admin", 1).append("_id", 1).append("age", 1)).named("admin_id_age"));
+        log.info("Age migration finished, admin_id_age index built");
+    }
+}
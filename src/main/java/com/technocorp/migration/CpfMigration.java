@@ -0,0 +1,132 @@
+package com.technocorp.migration;
+
+import com.technocorp.model.User;
+import com.technocorp.util.Cpf;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * One-off job that reduces every CPF to its digits, moves repeated ones out of the way and builds the unique cpf index.
+ * The oldest user keeps a repeated CPF, the others get it in {@code duplicateCpf} to be sorted out by hand. A CPF whose
+ * digits are already taken by a user the unique index holds, like 529.982.247-25 next to 52998224725, goes to
+ * {@code duplicateCpf} while it is normalized. Enabled with {@code users.migration.cpf=true}, safe to run more than once.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "users.migration", name = "cpf", havingValue = "true")
+public class CpfMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("CPF migration normalized {} users", normalize());
+        log.info("CPF migration moved {} repeated CPFs to duplicateCpf", moveDuplicates());
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index("cpf", Sort.Direction.ASC).named("cpf").unique().sparse());
+        log.info("CPF migration finished, unique cpf index built");
+    }
+
+    // Only users whose CPF has something besides digits are read, the regex runs in the database.
+    private long normalize() {
+        var query = new Query(where("cpf").regex("\\D"));
+        query.fields().include("cpf");
+        var batch = new ArrayList<User>(BATCH_SIZE);
+        long normalized = 0;
+        try (var users = mongoTemplate.stream(query, User.class)) {
+            while (users.hasNext()) {
+                var user = users.next();
+                user.setCpf(Cpf.normalize(user.getCpf()));
+                batch.add(user);
+                if (batch.size() == BATCH_SIZE) {
+                    normalized += normalize(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            normalized += normalize(batch);
+        }
+        return normalized;
+    }
+
+    // The unique index may already be there, built by an earlier start or run: the users whose digits it already
+    // holds are the duplicates, their CPF is moved aside instead of failing the whole migration.
+    private long normalize(List<User> batch) {
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        batch.forEach(user -> bulk.updateOne(new Query(where("id").is(user.getId())),
+                user.getCpf() == null ? new Update().unset("cpf") : Update.update("cpf", user.getCpf())));
+        try {
+            return bulk.execute().getModifiedCount();
+        } catch (BulkOperationException e) {
+            var moves = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (var error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                var user = batch.get(error.getIndex());
+                moves.updateOne(new Query(where("id").is(user.getId())),
+                        new Update().unset("cpf").set("duplicateCpf", user.getCpf()));
+            }
+            var moved = moves.execute().getModifiedCount();
+            log.info("CPF migration moved {} CPFs that were taken once normalized to duplicateCpf", moved);
+            return e.getResult().getModifiedCount() + moved;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private long moveDuplicates() {
+        var aggregation = newAggregation(
+                match(where("cpf").exists(true)),
+                sort(Sort.Direction.ASC, "id"),
+                group("cpf").push("_id").as("ids").count().as("count"),
+                match(where("count").gt(1)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        long pending = 0;
+        long moved = 0;
+        try (var groups = mongoTemplate.aggregateStream(aggregation, User.class, Document.class)) {
+            while (groups.hasNext()) {
+                var ids = (List<Object>) groups.next().get("ids");
+                // Ids were pushed in _id order, so the first one is the oldest user and keeps the CPF.
+                for (var id : ids.subList(1, ids.size())) {
+                    bulk.updateOne(new Query(where("_id").is(id)), new Update().rename("cpf", "duplicateCpf"));
+                    if (++pending == BATCH_SIZE) {
+                        moved += bulk.execute().getModifiedCount();
+                        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                        pending = 0;
+                    }
+                }
+            }
+        }
+        if (pending > 0) {
+            moved += bulk.execute().getModifiedCount();
+        }
+        return moved;
+    }
+}
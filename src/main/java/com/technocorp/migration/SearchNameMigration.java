@@ -0,0 +1,60 @@
+package com.technocorp.migration;
+
+import com.technocorp.model.User;
+import com.technocorp.util.SearchKey;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * One-off job that fills {@code searchName} on users saved before it existed and builds its index.
+ * Enabled with {@code users.migration.search-name=true}, safe to run more than once.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "users.migration", name = "search-name", havingValue = "true")
+public class SearchNameMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var query = new Query(where("searchName").exists(false));
+        query.fields().include("name");
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        long pending = 0;
+        long migrated = 0;
+        try (var users = mongoTemplate.stream(query, User.class)) {
+            while (users.hasNext()) {
+                var user = users.next();
+                bulk.updateOne(new Query(where("id").is(user.getId())),
+                        Update.update("searchName", SearchKey.of(user.getName())));
+                if (++pending == BATCH_SIZE) {
+                    migrated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            migrated += bulk.execute().getModifiedCount();
+        }
+        mongoTemplate.indexOps(User.class).ensureIndex(
+                new CompoundIndexDefinition(new Document("searchName", 1).append("_id", 1)).named("searchName_id"));
+        log.info("Search name migration finished, {} users updated", migrated);
+    }
+}
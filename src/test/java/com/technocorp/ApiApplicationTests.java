@@ -7,28 +7,37 @@ import com.technocorp.util.dto.ControllerResponseUserDTO;
 import com.technocorp.model.User;
 import com.technocorp.repository.UserRepository;
 import com.technocorp.service.UserServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@SpringBootTest
+// No database here, the repository is mocked.
+@SpringBootTest(properties = "users.indexes.ensure=false")
 @AutoConfigureMockMvc
 @ContextConfiguration(
         classes = {ApiApplication.class, UserController.class,
@@ -51,13 +60,17 @@ class ApiApplicationTests {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         this.user = User.builder()
                 .id("1")
                 .name("Teste")
+                .searchName("teste")
                 .surname("do Teste")
-                .age("99")
+                .age(99)
                 .cpf("999")
                 .login("login")
                 .password("123")
@@ -84,7 +97,7 @@ class ApiApplicationTests {
     @Test
     void shouldReturnTheCreatedUser() throws Exception {
         this.user.setId(null);
-        when(userRepository.save(this.user)).thenReturn(this.user);
+        when(userRepository.save(argThat(storedWithHashOf(this.user)))).thenReturn(this.user);
         //stub
         //Request;
         var result = this.mockMvc.perform(post("/users")
@@ -106,7 +119,7 @@ class ApiApplicationTests {
     @Test
     void shouldReturnAllUsersOfDatabase() throws Exception {
         //stub
-        when(userRepository.findAll()).thenReturn(List.of(this.user));
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(this.user));
         //Request;
         var result = this.mockMvc.perform(get("/users"))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -126,7 +139,7 @@ class ApiApplicationTests {
     @Test
     void shouldReturnUsersThatMatchCriteriaOfDatabase() throws Exception {
         //stub
-        when(userRepository.findByNameIgnoreCaseContaining("Teste")).thenReturn(List.of(this.user));
+        when(userRepository.findBySearchNameStartingWith(eq("teste"), any(Pageable.class))).thenReturn(List.of(this.user));
         //Request
         var result = mockMvc.perform(get("/users/Teste"))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -145,8 +158,7 @@ class ApiApplicationTests {
     @Test
     void shouldReturnTheUpdatedUser() throws Exception {
         //stub
-        when(userRepository.save(this.user)).thenReturn(this.user);
-        when(userRepository.existsById("1")).thenReturn(true);
+        when(userRepository.replaceIfExists(argThat(storedWithHashOf(this.user)))).thenReturn(Optional.of(this.user));
         //Request;
         var result = this.mockMvc.perform(put("/users")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -166,10 +178,28 @@ class ApiApplicationTests {
 
     @Test
     void shouldDeleteAUserAndReturnNOCONTENT() throws Exception {
-        when(userRepository.existsById("1")).thenReturn(true);
+        when(userRepository.removeById("1")).thenReturn(true);
         mockMvc.perform(delete("/users/" + "1"))
                 .andExpect(status().isNoContent())
                 .andReturn();
-        verify(userRepository, times(1)).deleteById("1");
+        verify(userRepository, times(1)).removeById("1");
+    }
+
+    @Test
+    void shouldTimeTheServiceCalls() throws Exception {
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(this.user));
+        var timer = meterRegistry.timer(UserServiceImpl.TIMER, "class", UserServiceImpl.class.getName(),
+                "method", "findAll", "exception", "none");
+        var before = timer.count();
+        mockMvc.perform(get("/users").param("limit", "7"))
+                .andExpect(status().isOk());
+        assertEquals(before + 1, timer.count());
+    }
+
+    // The user as sent, but with a bcrypt hash in place of its password.
+    private static ArgumentMatcher<User> storedWithHashOf(User sent) {
+        return stored -> stored.getPassword() != null && BCrypt.checkpw(sent.getPassword(), stored.getPassword())
+                && sent.equals(new User(stored.getId(), stored.getName(), stored.getSearchName(), stored.getSurname(),
+                stored.getAge(), stored.getCpf(), stored.getLogin(), sent.getPassword(), stored.isAdmin()));
     }
 }
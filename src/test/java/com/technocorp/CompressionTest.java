@@ -0,0 +1,64 @@
+package com.technocorp;
+
+import com.technocorp.model.User;
+import com.technocorp.repository.UserRepository;
+import com.technocorp.service.UserServiceImpl;
+import com.technocorp.util.Pages;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+// Compression is done by Tomcat, so this one runs on a real server instead of MockMvc.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.indexes.ensure=false")
+class CompressionTest {
+
+    @LocalServerPort
+    int port;
+
+    @MockBean
+    UserServiceImpl userServiceImpl;
+
+    @MockBean
+    UserRepository userRepository;
+
+    @Test
+    void whenAPageWithAnEtagIsLargeShouldGzipItAndKeepTheEtag() throws Exception {
+        var users = IntStream.range(0, 100)
+                .mapToObj(index -> User.builder()
+                        .id(String.format("5fd0e8a2c1a3b2d4e6f8%04x", index))
+                        .name("Andrews")
+                        .surname("Souza")
+                        .age(30)
+                        .cpf("123")
+                        .build())
+                .collect(Collectors.toList());
+        var page = Pages.toPage(users, 100);
+        when(userServiceImpl.findAll(100, null)).thenReturn(page);
+        var client = HttpClient.newHttpClient();
+        var response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Accept-Encoding", "gzip")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals(page.getEtag(), response.headers().firstValue("ETag").orElse(null));
+        assertTrue(page.getEtag().startsWith("W/\""));
+
+        var notModified = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", page.getEtag())
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertEquals(304, notModified.statusCode());
+    }
+}
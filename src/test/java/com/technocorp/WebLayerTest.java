@@ -1,10 +1,13 @@
 package com.technocorp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technocorp.controller.UserController;
 import com.technocorp.model.User;
 import com.technocorp.repository.UserRepository;
 import com.technocorp.service.UserServiceImpl;
 import com.technocorp.util.dto.ServiceRequestUserDTO;
+import com.technocorp.util.dto.ServiceResponseBatchItemDTO;
+import com.technocorp.util.dto.ServiceResponsePageDTO;
 import com.technocorp.util.dto.ServiceResponseUserDTO;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,12 +17,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
@@ -55,7 +62,7 @@ class WebLayerTest {
                 .id("1")
                 .name("Andrews")
                 .surname("Souza")
-                .age("30")
+                .age(30)
                 .cpf("123")
                 .login("andrews")
                 .password("123")
@@ -84,7 +91,10 @@ class WebLayerTest {
     @Test
     @DisplayName("Should return all users in the database.")
     void ShouldReturnAListOfUsersAndStatusOK() throws Exception {
-        when(this.userServiceImpl.findAll()).thenReturn(Collections.singletonList(this.responseUserDTO));
+        when(this.userServiceImpl.findAll(100, null)).thenReturn(ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(this.responseUserDTO))
+                .nextCursor("MQ")
+                .build());
         this.mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -92,17 +102,64 @@ class WebLayerTest {
                 .andExpect(jsonPath("$[0].id", Matchers.is("1")))
                 .andExpect(jsonPath("$[0].name", Matchers.is("Andrews")))
                 .andExpect(jsonPath("$[0].surname", Matchers.is("Souza")))
-                .andExpect(jsonPath("$[0].age", Matchers.is("30")))
+                .andExpect(jsonPath("$[0].age", Matchers.is(30)))
                 .andExpect(jsonPath("$[0].cpf", Matchers.is("123")))
                 .andExpect(jsonPath("$[0].admin", Matchers.is(false)))
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "MQ"))
                 .andDo(print())
                 .andDo(document("users/list_all_users"));
     }
 
+    @Test
+    @DisplayName("Should answer 304 without a body when the page didn't change.")
+    void whenIfNoneMatchIsTheEtagOfThePageShouldReturnNotModified() throws Exception {
+        when(this.userServiceImpl.findAll(100, null)).thenReturn(ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(this.responseUserDTO))
+                .etag("W/\"5d41402abc4b2a76\"")
+                .build());
+        this.mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"5d41402abc4b2a76\""));
+        this.mockMvc.perform(get("/users").header("If-None-Match", "W/\"5d41402abc4b2a76\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"5d41402abc4b2a76\""))
+                .andExpect(content().string(""))
+                .andDo(print())
+                .andDo(document("users/list_not_modified"));
+    }
+
+    @Test
+    @DisplayName("Should return the users in the age range.")
+    void whenFilteringByAgeShouldReturnTheSegmentAndStatusOK() throws Exception {
+        when(this.userServiceImpl.findBySegment(30, 45, false, 100, null)).thenReturn(ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(this.responseUserDTO))
+                .build());
+        this.mockMvc.perform(get("/users").param("minAge", "30").param("maxAge", "45").param("admin", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", Matchers.is(1)))
+                .andExpect(jsonPath("$[0].age", Matchers.is(30)))
+                .andDo(print())
+                .andDo(document("users/list_segment"));
+    }
+
+    @Test
+    @DisplayName("Should return only the number of users on HEAD.")
+    void whenHeadShouldReturnTheTotalCountWithoutBody() throws Exception {
+        when(this.userServiceImpl.count()).thenReturn(42L);
+        this.mockMvc.perform(head("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.TOTAL_COUNT_HEADER, "42"))
+                .andExpect(content().string(""))
+                .andDo(print())
+                .andDo(document("users/count"));
+    }
+
     @Test
     @DisplayName("Should return a list of users that match the name.")
     void whenFindByNameShouldReturnAnUserAndStatuOK() throws Exception {
-        when(this.userServiceImpl.findByName(this.user.getName())).thenReturn(Collections.singletonList(this.responseUserDTO));
+        when(this.userServiceImpl.findByName(this.user.getName(), 100, null)).thenReturn(ServiceResponsePageDTO.builder()
+                .users(Collections.singletonList(this.responseUserDTO))
+                .build());
         this.mockMvc.perform(get("/users/Andrews"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -110,13 +167,27 @@ class WebLayerTest {
                 .andExpect(jsonPath("$[0].id", Matchers.is("1")))
                 .andExpect(jsonPath("$[0].name", Matchers.is("Andrews")))
                 .andExpect(jsonPath("$[0].surname", Matchers.is("Souza")))
-                .andExpect(jsonPath("$[0].age", Matchers.is("30")))
+                .andExpect(jsonPath("$[0].age", Matchers.is(30)))
                 .andExpect(jsonPath("$[0].cpf", Matchers.is("123")))
                 .andExpect(jsonPath("$[0].admin", Matchers.is(false)))
                 .andDo(print())
                 .andDo(document("users/find_by_name"));
     }
 
+    @Test
+    @DisplayName("Should stream all users as NDJSON.")
+    void whenStreamShouldWriteNdjsonAndStatusOK() throws Exception {
+        when(this.userServiceImpl.streamAll()).thenReturn(Stream.of(this.responseUserDTO));
+        var result = this.mockMvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(Matchers.startsWith("{\"id\":\"1\",\"name\":\"Andrews\"")))
+                .andExpect(content().string(Matchers.endsWith("}\n")));
+    }
+
     @Test
     @DisplayName("Should save an user and return it.")
     void whenSaveShouldReturnTheUserSavedAndStatusCreated() throws Exception {
@@ -131,7 +202,7 @@ class WebLayerTest {
                 .andExpect(jsonPath("id", Matchers.is("1")))
                 .andExpect(jsonPath("name", Matchers.is("Andrews")))
                 .andExpect(jsonPath("surname", Matchers.is("Souza")))
-                .andExpect(jsonPath("age", Matchers.is("30")))
+                .andExpect(jsonPath("age", Matchers.is(30)))
                 .andExpect(jsonPath("cpf", Matchers.is("123")))
                 .andExpect(jsonPath("admin", Matchers.is(false)))
                 .andDo(print())
@@ -147,6 +218,23 @@ class WebLayerTest {
                 ));
     }
 
+    @Test
+    @DisplayName("Should save a batch of users and return the result of each one.")
+    void whenSaveAllShouldReturnTheResultOfEachUserAndStatusOK() throws Exception {
+        this.requestUserDTO.setId(null);
+        var json = new ObjectMapper().writeValueAsString(List.of(this.requestUserDTO, this.requestUserDTO));
+        when(this.userServiceImpl.saveAll(List.of(this.requestUserDTO, this.requestUserDTO), false)).thenReturn(List.of(
+                ServiceResponseBatchItemDTO.builder().index(0).id("1").build(),
+                ServiceResponseBatchItemDTO.builder().index(1).error("duplicate key").build()));
+        this.mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", Matchers.is("1")))
+                .andExpect(jsonPath("$[1].error", Matchers.is("duplicate key")))
+                .andDo(document("users/save_batch"));
+    }
+
     @Test
     @DisplayName("Should update an user and return it.")
     void whenUpdateShouldReturnTheUserSavedAndStatusOK() throws Exception {
@@ -161,13 +249,27 @@ class WebLayerTest {
                 .andExpect(jsonPath("id", Matchers.is("1")))
                 .andExpect(jsonPath("name", Matchers.is("Andrews")))
                 .andExpect(jsonPath("surname", Matchers.is("Souza")))
-                .andExpect(jsonPath("age", Matchers.is("30")))
+                .andExpect(jsonPath("age", Matchers.is(30)))
                 .andExpect(jsonPath("cpf", Matchers.is("123")))
                 .andExpect(jsonPath("admin", Matchers.is(false)))
                 .andDo(print())
                 .andDo(document("users/save"));
     }
 
+    @Test
+    @DisplayName("Should update only the given fields of an user and return it.")
+    void whenPatchShouldReturnTheUserUpdatedAndStatusOK() throws Exception {
+        Map<String, Object> fields = Map.of("surname", "Souza");
+        when(this.userServiceImpl.patch("1", fields)).thenReturn(this.responseUserDTO);
+        this.mockMvc.perform(patch("/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(fields)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id", Matchers.is("1")))
+                .andExpect(jsonPath("surname", Matchers.is("Souza")))
+                .andDo(document("users/patch"));
+    }
+
     @Test
     @DisplayName("Should update an user and return it.")
     void whenDeleteThenShouldReturnVoidAndStatusNOCONTENT() throws Exception {
@@ -176,10 +278,32 @@ class WebLayerTest {
                 .andDo(document("users/delete"));
     }
 
+    @Test
+    @DisplayName("Should return the user with the CPF.")
+    void whenFindByCpfShouldReturnTheUserAndStatusOK() throws Exception {
+        when(this.userServiceImpl.findByCpf("123.456.789-09")).thenReturn(this.responseUserDTO);
+        this.mockMvc.perform(get("/users/cpf/123.456.789-09"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id", Matchers.is("1")))
+                .andExpect(jsonPath("cpf", Matchers.is("123")))
+                .andDo(document("users/find_by_cpf"));
+    }
+
+    @Test
+    void saveWithARepeatedCpfShouldReturnStatusCONFLICT() throws Exception {
+        var json = new ObjectMapper().writeValueAsString(this.requestUserDTO);
+        doThrow(new DuplicateKeyException("E11000 duplicate key error")).when(userServiceImpl).save(requestUserDTO);
+        this.mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("message", Matchers.is("There is already an user with this CPF")));
+    }
+
     @Test
     void findAllshouldReturnStatusNOCONTENT() throws Exception {
         var exception = new ResponseStatusException(HttpStatus.NO_CONTENT);
-        doThrow(exception).when(userServiceImpl).findAll();
+        doThrow(exception).when(userServiceImpl).findAll(100, null);
         this.mockMvc.perform(get("/users"))
                 .andExpect(status().isNoContent());
     }
@@ -187,7 +311,7 @@ class WebLayerTest {
     @Test
     void findByNameShouldReturnStatusNOTFOUND() throws Exception {
         var exception = new ResponseStatusException(HttpStatus.NOT_FOUND);
-        doThrow(exception).when(userServiceImpl).findByName("a");
+        doThrow(exception).when(userServiceImpl).findByName("a", 100, null);
         this.mockMvc.perform(get("/users/a"))
                 .andExpect(status().isNotFound());
     }
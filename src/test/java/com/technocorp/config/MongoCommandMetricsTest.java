@@ -0,0 +1,60 @@
+package com.technocorp.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MongoCommandMetricsTest {
+
+    private final ConnectionDescription connection =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    private SimpleMeterRegistry registry;
+    private MongoCommandMetrics metrics;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        this.metrics = new MongoCommandMetrics(registry);
+    }
+
+    @Test
+    void whenFindSucceedsShouldRecordTheLatencyAndTheDocumentsOfTheBatch() {
+        var response = new BsonDocument("cursor", new BsonDocument("firstBatch",
+                new BsonArray(List.of(new BsonDocument(), new BsonDocument(), new BsonDocument()))));
+        metrics.commandSucceeded(new CommandSucceededEvent(1, connection, "find", response,
+                TimeUnit.MILLISECONDS.toNanos(5)));
+        var timer = registry.get(MongoCommandMetrics.COMMANDS).tag("command", "find").tag("status", "SUCCESS").timer();
+        assertEquals(1, timer.count());
+        assertEquals(5, timer.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(3, registry.get(MongoCommandMetrics.DOCUMENTS).tag("command", "find").summary().totalAmount());
+    }
+
+    @Test
+    void whenWriteSucceedsShouldRecordTheDocumentsItAffected() {
+        metrics.commandSucceeded(new CommandSucceededEvent(1, connection, "insert",
+                new BsonDocument("n", new BsonInt32(7)), 1));
+        assertEquals(7, registry.get(MongoCommandMetrics.DOCUMENTS).tag("command", "insert").summary().totalAmount());
+    }
+
+    @Test
+    void whenCommandFailsShouldRecordItAsFailedWithoutDocuments() {
+        metrics.commandFailed(new CommandFailedEvent(1, connection, "update", 1, new RuntimeException()));
+        assertEquals(1, registry.get(MongoCommandMetrics.COMMANDS).tag("status", "FAILED").timer().count());
+        assertNull(registry.find(MongoCommandMetrics.DOCUMENTS).summary());
+    }
+}
@@ -0,0 +1,59 @@
+package com.technocorp.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MongoPoolMetricsTest {
+
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress());
+    private SimpleMeterRegistry registry;
+    private MongoPoolMetrics metrics;
+
+    @BeforeEach
+    void setup() {
+        this.registry = new SimpleMeterRegistry();
+        this.metrics = new MongoPoolMetrics(registry);
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId,
+                ConnectionPoolSettings.builder().maxSize(20).build()));
+    }
+
+    @Test
+    void whenACheckOutIsInProgressShouldCountItAsWaiting() {
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        assertEquals(1, registry.get(MongoPoolMetrics.WAITING).gauge().value());
+        assertEquals(20, registry.get(MongoPoolMetrics.MAX_SIZE).gauge().value());
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(serverId)));
+        assertEquals(0, registry.get(MongoPoolMetrics.WAITING).gauge().value());
+        assertEquals(1, registry.get(MongoPoolMetrics.WAIT).tag("outcome", "CHECKED_OUT").timer().count());
+    }
+
+    @Test
+    void whenACheckOutTimesOutShouldRecordTheWaitAsFailed() {
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        metrics.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT));
+        assertEquals(0, registry.get(MongoPoolMetrics.WAITING).gauge().value());
+        assertEquals(1, registry.get(MongoPoolMetrics.WAIT).tag("outcome", "FAILED").timer().count());
+    }
+
+    @Test
+    void whenThePoolIsClosedShouldRemoveItsGauges() {
+        metrics.connectionPoolClosed(new ConnectionPoolClosedEvent(serverId));
+        assertNull(registry.find(MongoPoolMetrics.WAITING).gauge());
+        assertNull(registry.find(MongoPoolMetrics.MAX_SIZE).gauge());
+    }
+}
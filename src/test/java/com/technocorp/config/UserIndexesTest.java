@@ -0,0 +1,44 @@
+package com.technocorp.config;
+
+import com.technocorp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserIndexesTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexOperations indexes;
+
+    @BeforeEach
+    void setup() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.indexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(User.class)).thenReturn(indexes);
+    }
+
+    @Test
+    void shouldBuildTheIndexesOfTheUserQueries() {
+        new UserIndexes(mongoTemplate, new MockEnvironment()).afterPropertiesSet();
+        verify(indexes, times(3)).ensureIndex(any());
+        verify(indexes).ensureIndex(argThat(index -> "cpf".equals(index.getIndexOptions().getString("name"))));
+    }
+
+    @Test
+    void whenTheCpfMigrationRunsShouldLeaveTheCpfIndexToIt() {
+        new UserIndexes(mongoTemplate, new MockEnvironment().withProperty("users.migration.cpf", "true"))
+                .afterPropertiesSet();
+        verify(indexes, times(2)).ensureIndex(any());
+        verify(indexes, never()).ensureIndex(argThat(index -> "cpf".equals(index.getIndexOptions().getString("name"))));
+    }
+}
@@ -0,0 +1,59 @@
+package com.technocorp.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserDatasetTest {
+
+    private final UserDataset dataset = new UserDataset(42);
+
+    @Test
+    void shouldGenerateTheSameUserForTheSameIndex() {
+        assertEquals(dataset.user(7), new UserDataset(42).user(7));
+    }
+
+    @Test
+    void shouldGenerateUniqueCpfsWithValidCheckDigits() {
+        var cpfs = new HashSet<String>();
+        for (long index = 0; index < 100_000; index++) {
+            var cpf = dataset.cpf(index);
+            assertTrue(cpf.matches("\\d{11}"), cpf);
+            assertTrue(isValid(cpf), cpf);
+            cpfs.add(cpf);
+        }
+        assertEquals(100_000, cpfs.size());
+    }
+
+    @Test
+    void shouldRepeatPopularSurnamesAndKeepAgesAdult() {
+        Map<String, Integer> surnames = new HashMap<>();
+        for (long index = 0; index < 10_000; index++) {
+            var user = dataset.user(index);
+            var age = user.getInteger("age");
+            assertTrue(age >= 18 && age <= 100, "age " + age);
+            surnames.merge(user.getString("surname").split(" ")[0], 1, Integer::sum);
+        }
+        assertTrue(surnames.get("Silva") > surnames.get("Muniz") * 5);
+    }
+
+    // The check digit algorithm, written the way it is usually validated: both sums must match the last two digits.
+    private static boolean isValid(String cpf) {
+        for (int length = 9; length <= 10; length++) {
+            var sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += (cpf.charAt(i) - '0') * (length + 1 - i);
+            }
+            var digit = (sum * 10) % 11 % 10;
+            if (digit != cpf.charAt(length) - '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}